@@ -6,6 +6,7 @@ import android.view.View;
 import android.widget.TextView;
 
 import com.seekbar.BaseSeekBar;
+import com.seekbar.LabelAdapter;
 import com.seekbar.sliding.SlidingSeekBar;
 import com.seekbar.sliding.listener.OnRangeBarChangeListener;
 import com.seekbar.sliding.text.TextSeekBar;
@@ -28,19 +29,23 @@ public class MainActivity extends AppCompatActivity {
         final TextSeekBar mGoBackSeekBar = (TextSeekBar) findViewById(R.id.only_back);
         final TextView mGo = (TextView) findViewById(R.id.go_only);
         final TextView mBack = (TextView) findViewById(R.id.go_back);
-        mGoBackSeekBar.setCircleText(mGo.getText().toString());
+        final String[] labels = {mGo.getText().toString(), mBack.getText().toString()};
+        mGoBackSeekBar.setLabelAdapter(new LabelAdapter() {
+            @Override
+            public CharSequence getLabel(int index) {
+                return labels[index];
+            }
+        });
         mGo.setVisibility(View.INVISIBLE);
         mGoBackSeekBar.setOnRangeBarChangeListener(new OnRangeBarChangeListener() {
             @Override
             public void onIndexChangeListener(BaseSeekBar rangeBar, int leftThumbIndex, int rightThumbIndex) {
                 switch (leftThumbIndex){
                     case 0:
-                        mGoBackSeekBar.setCircleText(mGo.getText().toString());
                         mGo.setVisibility(View.INVISIBLE);
                         mBack.setVisibility(View.VISIBLE);
                         break;
                     case 1:
-                        mGoBackSeekBar.setCircleText(mBack.getText().toString());
                         mGo.setVisibility(View.VISIBLE);
                         mBack.setVisibility(View.INVISIBLE);
                         break;
@@ -54,6 +59,18 @@ public class MainActivity extends AppCompatActivity {
      */
     private void onTimer(){
         SlidingSeekBar slidingSeekBar = (SlidingSeekBar) findViewById(R.id.time_bar);
+        final String[] tickLabels = {
+                getString(R.string.init_time00),
+                getString(R.string.init_time06),
+                getString(R.string.init_time12),
+                getString(R.string.init_time18),
+                getString(R.string.init_time24)};
+        slidingSeekBar.setTickLabelAdapter(new LabelAdapter() {
+            @Override
+            public CharSequence getLabel(int index) {
+                return tickLabels[index];
+            }
+        });
         slidingSeekBar.setOnRangeBarChangeListener(new OnRangeBarChangeListener() {
             @Override
             public void onIndexChangeListener(BaseSeekBar rangeBar, int leftThumbIndex, int rightThumbIndex) {
@@ -0,0 +1,94 @@
+package com.seekbar.benchmark;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.seekbar.BaseSeekBar;
+import com.seekbar.SeekBarMetrics;
+import com.seekbar.sliding.SlidingSeekBar;
+import com.seekbar.sliding.text.TextSeekBar;
+
+/**
+ * Alternates SlidingSeekBar and TextSeekBar rows and times inflating and
+ * binding them. Every bar records into the same metrics.
+ */
+class BenchmarkAdapter extends RecyclerView.Adapter<BenchmarkAdapter.RowHolder> {
+
+    static final int TYPE_SLIDING = 0;
+    static final int TYPE_TEXT = 1;
+
+    private final int mRowCount;
+    private final SeekBarMetrics mMetrics;
+    private final ListBenchmark.Counters mCounters;
+    private final boolean[] mBound;
+
+    BenchmarkAdapter(int rowCount, SeekBarMetrics metrics, ListBenchmark.Counters counters) {
+        mRowCount = rowCount;
+        mMetrics = metrics;
+        mCounters = counters;
+        mBound = new boolean[rowCount];
+    }
+
+    @Override
+    public int getItemCount() {
+        return mRowCount;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return (position % 2 == 0) ? TYPE_SLIDING : TYPE_TEXT;
+    }
+
+    @Override
+    public RowHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        final long start = System.nanoTime();
+        final int layout = (viewType == TYPE_SLIDING) ? R.layout.benchmark_row_sliding : R.layout.benchmark_row_text;
+        final View row = LayoutInflater.from(parent.getContext()).inflate(layout, parent, false);
+        mCounters.inflateNanos += System.nanoTime() - start;
+        mCounters.inflations++;
+
+        ((CountingFrameLayout) row).setCounters(mCounters);
+        final RowHolder holder = new RowHolder(row);
+        holder.bar.setMetrics(mMetrics);
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(RowHolder holder, int position) {
+        final long start = System.nanoTime();
+        if (holder.bar instanceof SlidingSeekBar) {
+            final int left = position % 3;
+            ((SlidingSeekBar) holder.bar).setThumbIndices(left, left + 2);
+        } else {
+            ((TextSeekBar) holder.bar).setThumbIndices(position % 5);
+        }
+        mCounters.bindNanos += System.nanoTime() - start;
+        mCounters.binds++;
+        mBound[position] = true;
+    }
+
+    /**
+     * Gets the number of distinct positions bound so far.
+     */
+    int getBoundRowCount() {
+        int count = 0;
+        for (boolean bound : mBound) {
+            if (bound) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static class RowHolder extends RecyclerView.ViewHolder {
+
+        final BaseSeekBar bar;
+
+        RowHolder(View row) {
+            super(row);
+            bar = (BaseSeekBar) row.findViewById(R.id.benchmark_bar);
+        }
+    }
+}
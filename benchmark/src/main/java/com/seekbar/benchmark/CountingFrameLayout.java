@@ -0,0 +1,42 @@
+package com.seekbar.benchmark;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.widget.FrameLayout;
+
+/**
+ * Row container of the benchmark list that counts its measure and layout
+ * passes.
+ */
+public class CountingFrameLayout extends FrameLayout {
+
+    private ListBenchmark.Counters mCounters;
+
+    public CountingFrameLayout(Context context) {
+        super(context);
+    }
+
+    public CountingFrameLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    void setCounters(ListBenchmark.Counters counters) {
+        mCounters = counters;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        if (mCounters != null) {
+            mCounters.measures++;
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        if (mCounters != null) {
+            mCounters.layouts++;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.seekbar.benchmark;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import com.seekbar.SeekBarMetrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Scrolls a RecyclerView of seek bar rows from top to bottom and back, drawing
+ * a frame after every step, and reports what the rows cost: inflation and
+ * bind time, measure and layout passes, draw time and heap growth. Inflation
+ * runs rangeBarInit, the first layout of a row onSizeChanged, and rebinding
+ * setThumbIndices and with it createThumbs.
+ * <p>
+ * Runs on the main thread of a device or under Robolectric.
+ */
+public final class ListBenchmark {
+
+    public static final int DEFAULT_ROW_COUNT = 500;
+
+    private ListBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark in the given activity, replacing its content.
+     *
+     * @param activity the activity to show the list in
+     * @param rowCount number of rows in the list
+     * @param width width of the list in px
+     * @param height height of the list in px
+     * @param scrollStepPx distance scrolled per frame
+     * @return the measured costs
+     */
+    public static Result run(Activity activity, int rowCount, int width, int height, int scrollStepPx) {
+        final Runtime runtime = Runtime.getRuntime();
+        final long heapBefore = usedHeap(runtime);
+
+        final Counters counters = new Counters();
+        final SeekBarMetrics metrics = new SeekBarMetrics();
+        final BenchmarkAdapter adapter = new BenchmarkAdapter(rowCount, metrics, counters);
+
+        final RecyclerView list = new RecyclerView(activity);
+        list.setLayoutManager(new LinearLayoutManager(activity));
+        list.setAdapter(adapter);
+        activity.setContentView(list);
+
+        final long start = System.nanoTime();
+        list.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        list.layout(0, 0, width, height);
+
+        final Canvas canvas = new Canvas(Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+        int frames = 0;
+        for (int direction = 1; direction >= -1; direction -= 2) {
+            while (true) {
+                list.draw(canvas);
+                frames++;
+                if (!list.canScrollVertically(direction)) {
+                    break;
+                }
+                list.scrollBy(0, direction * scrollStepPx);
+            }
+        }
+        final long totalNanos = System.nanoTime() - start;
+
+        final long heapAfter = usedHeap(runtime);
+        return new Result(rowCount, adapter.getBoundRowCount(), frames, totalNanos, counters,
+                metrics.snapshot(), heapAfter - heapBefore);
+    }
+
+    private static long usedHeap(Runtime runtime) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * Counts filled in by the adapter and the rows.
+     */
+    static final class Counters {
+        int inflations;
+        long inflateNanos;
+        int binds;
+        long bindNanos;
+        int measures;
+        int layouts;
+    }
+
+    /**
+     * The costs measured by one run.
+     */
+    public static final class Result {
+
+        private final int mRowCount;
+        private final int mBoundRowCount;
+        private final int mFrames;
+        private final long mTotalNanos;
+        private final Counters mCounters;
+        private final SeekBarMetrics.Snapshot mMetrics;
+        private final long mHeapGrowthBytes;
+
+        Result(int rowCount, int boundRowCount, int frames, long totalNanos, Counters counters,
+               SeekBarMetrics.Snapshot metrics, long heapGrowthBytes) {
+            mRowCount = rowCount;
+            mBoundRowCount = boundRowCount;
+            mFrames = frames;
+            mTotalNanos = totalNanos;
+            mCounters = counters;
+            mMetrics = metrics;
+            mHeapGrowthBytes = heapGrowthBytes;
+        }
+
+        public int getRowCount() {
+            return mRowCount;
+        }
+
+        /**
+         * Gets the number of distinct rows that were bound while scrolling.
+         */
+        public int getBoundRowCount() {
+            return mBoundRowCount;
+        }
+
+        public int getFrames() {
+            return mFrames;
+        }
+
+        public int getInflations() {
+            return mCounters.inflations;
+        }
+
+        public int getBinds() {
+            return mCounters.binds;
+        }
+
+        public SeekBarMetrics.Snapshot getMetrics() {
+            return mMetrics;
+        }
+
+        /**
+         * Writes the report to a file, creating its directory.
+         */
+        public void writeTo(File file) throws IOException {
+            final File dir = file.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+            final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(toString());
+            } finally {
+                writer.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            final int inflations = Math.max(1, mCounters.inflations);
+            final int binds = Math.max(1, mCounters.binds);
+            final StringBuilder sb = new StringBuilder("ListBenchmark\n");
+            sb.append("rows            ").append(mRowCount).append(" (").append(mBoundRowCount)
+                    .append(" bound)\n");
+            sb.append("frames          ").append(mFrames).append(" in ").append(mTotalNanos / 1000000)
+                    .append("ms\n");
+            sb.append("inflations      ").append(mCounters.inflations).append(", ")
+                    .append(mCounters.inflateNanos / inflations / 1000).append("us/row\n");
+            sb.append("binds           ").append(mCounters.binds).append(", ")
+                    .append(mCounters.bindNanos / binds / 1000).append("us/bind\n");
+            sb.append("measures        ").append(mCounters.measures).append(", ")
+                    .append(String.format("%.2f", mCounters.measures / (float) binds)).append("/bind\n");
+            sb.append("layouts         ").append(mCounters.layouts).append(", ")
+                    .append(String.format("%.2f", mCounters.layouts / (float) binds)).append("/bind\n");
+            sb.append("draws           ").append(mMetrics.getCount(SeekBarMetrics.HISTOGRAM_DRAW))
+                    .append(", mean ").append(mMetrics.getMeanNanos(SeekBarMetrics.HISTOGRAM_DRAW) / 1000)
+                    .append("us, p90 ")
+                    .append(mMetrics.getPercentileNanos(SeekBarMetrics.HISTOGRAM_DRAW, 90) / 1000)
+                    .append("us\n");
+            sb.append("thumb rebuilds  ").append(mMetrics.getCounter(SeekBarMetrics.COUNTER_THUMB_REBUILDS))
+                    .append('\n');
+            sb.append("heap growth     ").append(mHeapGrowthBytes / 1024).append("KB, ")
+                    .append(mHeapGrowthBytes / inflations).append("B/inflated row\n");
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.seekbar.benchmark;
+
+import android.app.Activity;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the list benchmark under Robolectric and keeps the report in
+ * build/benchmark. Run with ./gradlew :benchmark:testDebugUnitTest.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScrollingListBenchmarkTest {
+
+    @Test
+    public void scrollAndRebindRows() throws Exception {
+        final Activity activity = Robolectric.setupActivity(Activity.class);
+
+        final ListBenchmark.Result result = ListBenchmark.run(activity, ListBenchmark.DEFAULT_ROW_COUNT,
+                1080, 1920, 120);
+
+        result.writeTo(new File("build/benchmark/list-benchmark.txt"));
+
+        assertEquals(ListBenchmark.DEFAULT_ROW_COUNT, result.getBoundRowCount());
+        assertTrue("rows were not recycled", result.getInflations() < result.getBinds());
+        assertTrue(result.getFrames() > 1);
+    }
+}
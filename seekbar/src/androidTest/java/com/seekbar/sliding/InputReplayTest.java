@@ -0,0 +1,110 @@
+package com.seekbar.sliding;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.seekbar.BaseSeekBar;
+import com.seekbar.InputRecorder;
+import com.seekbar.InputReplayer;
+import com.seekbar.sliding.listener.OnRangeBarChangeListener;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records a gesture on one bar and replays it against a fresh bar of the same
+ * size, which must report the same index changes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InputReplayTest {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 200;
+
+    private final ArrayList<Integer> mRecorded = new ArrayList<Integer>();
+    private InputReplayer.Result mResult;
+    private IOException mError;
+
+    @Test
+    public void replayReportsTheRecordedIndices() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final InputRecorder recorder = new InputRecorder();
+                final SlidingSeekBar bar = createBar(context);
+                bar.setOnRangeBarChangeListener(new OnRangeBarChangeListener() {
+                    @Override
+                    public void onIndexChangeListener(BaseSeekBar rangeBar, int leftThumbIndex, int rightThumbIndex) {
+                        mRecorded.add(leftThumbIndex);
+                        mRecorded.add(rightThumbIndex);
+                    }
+                });
+                bar.setInputRecorder(recorder);
+                sendGesture(bar);
+                try {
+                    mResult = InputReplayer.replay(createBar(context),
+                            new ByteArrayInputStream(recorder.toByteArray()));
+                } catch (IOException e) {
+                    mError = e;
+                }
+            }
+        });
+
+        if (mError != null) {
+            throw mError;
+        }
+        assertTrue(mRecorded.size() > 0);
+        assertEquals(mRecorded.size() / 2, mResult.getCallbackCount());
+        for (int i = 0; i < mResult.getCallbackCount(); i++) {
+            assertEquals((int) mRecorded.get(i * 2), mResult.getCallbackLeftIndex(i));
+            assertEquals((int) mRecorded.get(i * 2 + 1), mResult.getCallbackRightIndex(i));
+        }
+    }
+
+    private static SlidingSeekBar createBar(Context context) {
+        final SlidingSeekBar bar = new SlidingSeekBar(context);
+        bar.setTickCount(11);
+        final FrameLayout parent = new FrameLayout(context);
+        parent.addView(bar, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        parent.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        parent.layout(0, 0, WIDTH, HEIGHT);
+        return bar;
+    }
+
+    /**
+     * Taps the bar to pull the right thumb in, then drags it to the left.
+     */
+    private static void sendGesture(SlidingSeekBar bar) {
+        final float y = bar.getHeight() / 2f;
+        long downTime = SystemClock.uptimeMillis();
+        send(bar, downTime, downTime, MotionEvent.ACTION_DOWN, 420, y);
+        send(bar, downTime, downTime + 50, MotionEvent.ACTION_UP, 420, y);
+
+        downTime += 500;
+        send(bar, downTime, downTime, MotionEvent.ACTION_DOWN, 420, y);
+        for (int i = 1; i <= 10; i++) {
+            send(bar, downTime, downTime + i * 16, MotionEvent.ACTION_MOVE, 420 - i * 25, y);
+        }
+        send(bar, downTime, downTime + 200, MotionEvent.ACTION_UP, 170, y);
+    }
+
+    private static void send(View view, long downTime, long eventTime, int action, float x, float y) {
+        final MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        view.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
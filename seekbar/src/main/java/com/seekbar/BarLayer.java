@@ -0,0 +1,168 @@
+package com.seekbar;
+
+import android.graphics.Canvas;
+
+/**
+ * Content drawn behind the bar and the thumbs, such as the distribution of
+ * the data the bar filters. Add it with {@link BaseSeekBar#addLayer(BarLayer)}.
+ * <p>
+ * A layer is laid out with the extent of the bar whenever the bar is laid out
+ * or its tick count changes, and drawn with the current selection on every
+ * draw. All calls happen on the UI thread.
+ */
+public abstract class BarLayer {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private BaseSeekBar mOwner;
+
+    private float mLeft;
+    private float mTop;
+    private float mRight;
+    private float mBottom;
+    private float mBarY;
+    private int mTickCount;
+
+    // Protected Methods ///////////////////////////////////////////////////////
+
+    /**
+     * Called after the bar was laid out or its tick count changed. The
+     * getters return the new extent by then.
+     */
+    protected void onLayout() {
+    }
+
+    /**
+     * Draws the layer.
+     *
+     * @param canvas the canvas of the bar
+     * @param leftIndex index of the left end of the selection
+     * @param rightIndex index of the right end of the selection
+     * @param leftX x-coordinate of the left end of the selection
+     * @param rightX x-coordinate of the right end of the selection
+     */
+    protected abstract void draw(Canvas canvas, int leftIndex, int rightIndex, float leftX, float rightX);
+
+    /**
+     * Called when the layer is removed from its bar.
+     */
+    protected void onRemoved() {
+    }
+
+    /**
+     * Called when the bar releases its resources, e.g. when it is detached or
+     * the app is trimmed. Drops what can be rebuilt, such as bitmaps.
+     */
+    protected void onReleaseResources() {
+    }
+
+    /**
+     * Called when the bar restores its resources on the first draw after
+     * {@link #onReleaseResources()}, unless it is in low memory mode.
+     */
+    protected void onRestoreResources() {
+    }
+
+    /**
+     * Redraws the bar the layer belongs to.
+     */
+    protected void invalidate() {
+        if (mOwner != null) {
+            mOwner.invalidate();
+        }
+    }
+
+    /**
+     * Adds canvas calls issued by {@link #draw} to the count shown by the
+     * debug overlay of the bar.
+     *
+     * @param count the number of canvas calls
+     */
+    protected void countDrawCalls(int count) {
+        if (mOwner != null) {
+            mOwner.countDrawCalls(count);
+        }
+    }
+
+    /**
+     * Gets the bar the layer belongs to.
+     *
+     * @return the bar; null if the layer was not added to one
+     */
+    protected BaseSeekBar getOwner() {
+        return mOwner;
+    }
+
+    /**
+     * Gets whether the layer was laid out with a bar.
+     */
+    protected boolean isLaidOut() {
+        return mTickCount > 1 && mRight > mLeft;
+    }
+
+    /**
+     * Gets the x-coordinate of the first tick.
+     */
+    protected float getLeft() {
+        return mLeft;
+    }
+
+    protected float getTop() {
+        return mTop;
+    }
+
+    /**
+     * Gets the x-coordinate of the last tick.
+     */
+    protected float getRight() {
+        return mRight;
+    }
+
+    protected float getBottom() {
+        return mBottom;
+    }
+
+    /**
+     * Gets the y-coordinate of the bar line.
+     */
+    protected float getBarY() {
+        return mBarY;
+    }
+
+    protected int getTickCount() {
+        return mTickCount;
+    }
+
+    /**
+     * Gets the x-coordinate of a tick.
+     *
+     * @param index the 0-based index of the tick
+     */
+    protected float getTickX(int index) {
+        return mLeft + (mRight - mLeft) * index / (mTickCount - 1);
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    void attach(BaseSeekBar owner) {
+        if (mOwner != null && mOwner != owner) {
+            throw new IllegalStateException("The layer already belongs to another bar");
+        }
+        mOwner = owner;
+    }
+
+    void detach() {
+        mOwner = null;
+        onRemoved();
+    }
+
+    void layout(float left, float top, float right, float bottom, float barY, int tickCount) {
+        mLeft = left;
+        mTop = top;
+        mRight = right;
+        mBottom = bottom;
+        mBarY = barY;
+        mTickCount = tickCount;
+        onLayout();
+    }
+}
@@ -1,15 +1,32 @@
 package com.seekbar;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Looper;
 import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 
 import com.seekbar.sliding.R;
+import com.seekbar.sliding.listener.OnIndexPredictionListener;
 import com.seekbar.sliding.listener.OnRangeBarChangeListener;
+import com.seekbar.sliding.listener.OnRangeValueChangeListener;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by tangyx on 16/8/25.
@@ -17,6 +34,13 @@ import com.seekbar.sliding.listener.OnRangeBarChangeListener;
  */
 public class BaseSeekBar extends View {
 
+    // Rendering quality levels, from full quality down. Each level includes
+    // the degradations of the ones above it.
+    public static final int QUALITY_FULL = 0;
+    public static final int QUALITY_NO_ANTI_ALIAS = 1;
+    public static final int QUALITY_DECIMATED_TICKS = 2;
+    public static final int QUALITY_PRIMARY_LABEL_ONLY = 3;
+
     // Default values for variables
     private static final int DEFAULT_TICK_COUNT = 3;
     private static final float DEFAULT_TICK_HEIGHT_DP = 24;
@@ -30,7 +54,28 @@ public class BaseSeekBar extends View {
     protected static final float DEFAULT_THUMB_RADIUS_DP = -1;
     protected static final int DEFAULT_THUMB_COLOR_NORMAL = -1;
     protected static final int DEFAULT_THUMB_COLOR_PRESSED = -1;
-
+    // Indicator value to decode the thumb images at their density-scaled size
+    protected static final float DEFAULT_THUMB_IMAGE_SIZE_PX = -1;
+    protected static final boolean DEFAULT_THUMB_IMAGE_OPAQUE = false;
+    protected static final boolean DEFAULT_ASYNC_THUMB_LOADING = false;
+    private static final float DEFAULT_TICK_LABEL_TEXT_SIZE_SP = 12;
+    private static final int DEFAULT_TICK_LABEL_TEXT_COLOR = Color.BLACK;
+    // Space kept between two tick labels and between the thumbs and the labels
+    private static final float TICK_LABEL_GAP_DP = 4;
+    // Tick labels are kept by the layout of the bar, so the cache only needs to
+    // hold the ones measured while laying out
+    private static final int TICK_LABEL_CACHE_SIZE = 256;
+    // Stand-in for the frame interval where Choreographer is not available
+    private static final long FRAME_DELAY_MILLIS = 16;
+    private static final long FRAME_NANOS = 16666667L;
+    // Share of a 60Hz frame a draw may take before quality is lowered
+    private static final float DEFAULT_FRAME_BUDGET_SHARE = 0.5f;
+    // How quickly a finger is assumed to slow down at the end of a drag
+    private static final float DRAG_DECELERATION_DP = 4000f;
+    // Length the scale is sampled at before the bar is laid out
+    private static final float UNLAID_SCALE_LENGTH = 256;
+    // Value of the posted indices slot when there is nothing to apply
+    private static final long NO_POSTED_INDICES = Long.MIN_VALUE;
 
     protected int mTickCount = DEFAULT_TICK_COUNT;
     // Instance variables for all of the customizable attributes
@@ -46,7 +91,151 @@ public class BaseSeekBar extends View {
     protected int mThumbColorNormal = DEFAULT_THUMB_COLOR_NORMAL;
     protected int mThumbColorPressed = DEFAULT_THUMB_COLOR_PRESSED;
 
+    protected float mThumbImageSizePx = DEFAULT_THUMB_IMAGE_SIZE_PX;
+    protected boolean mThumbImageOpaque = DEFAULT_THUMB_IMAGE_OPAQUE;
+    protected boolean mAsyncThumbLoading = DEFAULT_ASYNC_THUMB_LOADING;
+
+    // Decoded thumb images, shared by both thumbs and reused across createThumbs
+    protected ThumbImages mThumbImages;
+
     protected OnRangeBarChangeListener mListener;
+    // Receives thumb values instead of indices, for subclasses that have them
+    protected OnRangeValueChangeListener mValueListener;
+
+    // Installed metrics hook; every measuring point checks it for null first
+    protected SeekBarMetrics mMetrics;
+    // Start of the touch event being dispatched, until the first invalidate
+    private long mTouchStartNanos;
+    // Receives every touch event before it is handled, for later replay
+    private InputRecorder mInputRecorder;
+
+    // Group sharing its range with this bar; set by RangeGroup
+    RangeGroup mRangeGroup;
+
+    // Times listener callbacks; may switch the bar to coalesced dispatch
+    ListenerWatchdog mListenerWatchdog;
+    // Delivers only the latest indices, once per frame
+    private boolean mCoalescedDispatch;
+    private boolean mDispatchPending;
+    private int mPendingLeftIndex;
+    private int mPendingRightIndex;
+    private final Runnable mDispatchPendingRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDispatchPending = false;
+            deliverIndexChange(mPendingLeftIndex, mPendingRightIndex);
+        }
+    };
+    private boolean mValueDispatchPending;
+    private long mPendingLeftValue;
+    private long mPendingRightValue;
+    private final Runnable mDispatchPendingValuesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mValueDispatchPending = false;
+            deliverValueChange(mPendingLeftValue, mPendingRightValue);
+        }
+    };
+
+    // Latest indices handed to postThumbIndices, packed as left << 32 | right.
+    // Written from any thread; read and cleared once per frame on the UI thread.
+    private final AtomicLong mPostedIndices = new AtomicLong(NO_POSTED_INDICES);
+    private final AtomicBoolean mPostedIndicesScheduled = new AtomicBoolean();
+    private final Runnable mSchedulePostedIndicesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            postOnNextFrame(mApplyPostedIndicesRunnable);
+        }
+    };
+    private final Runnable mApplyPostedIndicesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applyPostedIndices();
+        }
+    };
+
+    // Moves the thumbs on snap and on programmatic index changes while enabled
+    private final ThumbAnimator mThumbAnimator = new ThumbAnimator(this);
+    private boolean mThumbAnimationEnabled;
+
+    // Draws the dragged thumb ahead of the finger; null unless low latency
+    // mode is on
+    private TouchPredictor mTouchPredictor;
+    // Redraws without the prediction once it expired; at most one is pending
+    private final Runnable mPredictionExpiredRunnable = new Runnable() {
+        @Override
+        public void run() {
+            invalidate();
+        }
+    };
+
+    // Told where a fast drag is heading. The velocity tracker is obtained once
+    // and reused for every gesture until the bar is detached.
+    private OnIndexPredictionListener mPredictionListener;
+    private VelocityTracker mVelocityTracker;
+    private float mDragVelocity;
+    private float mPredictionConfidence;
+    private float mDragDecelerationPx;
+    private float mMinPredictionVelocity;
+    private int mPredictedLeftIndex = -1;
+    private int mPredictedRightIndex = -1;
+
+    // Maps positions along the bar to values, sampled into a table whenever
+    // the bar is laid out
+    private Scale mScale;
+    private final ScaleTable mScaleTable = new ScaleTable();
+    private float mScaleLeftX;
+    private float mScaleLength;
+
+    // Canvas calls counted during the current or last draw
+    private int mDrawCallCount;
+
+    // Drawn behind the bar, in the order added
+    private final ArrayList<BarLayer> mLayers = new ArrayList<>();
+    private float mLayerLeftX;
+    private float mLayerLength;
+
+    // Counts the items in the selection for the listener
+    private RangeCountIndex mRangeCountIndex;
+
+    // Lowers the rendering quality while dragging if drawing is too slow
+    private boolean mAdaptiveQuality;
+    private long mDrawBudgetNanos = (long) (FRAME_NANOS * DEFAULT_FRAME_BUDGET_SHARE);
+    private boolean mDragging;
+    protected int mQuality = QUALITY_FULL;
+
+    // Process-wide debug overlay switch; the overlay of a bar is created on its
+    // first draw with the switch on
+    private static volatile boolean sDebugOverlayEnabled;
+    private DebugOverlay mDebugOverlay;
+
+    // Labels drawn under the ticks; the paint is created with the adapter
+    protected final LabelCache mTickLabels = new LabelCache(TICK_LABEL_CACHE_SIZE);
+    protected Paint mTickLabelPaint;
+
+    // Set by the app to keep the thumbs drawn as circles and hold no bitmaps
+    private boolean mLowMemoryMode;
+    // Set when trimmed while on screen; cleared when the bar is reattached
+    private boolean mTrimmedLowMemory;
+    // Set once resources were released; they are restored on the next draw
+    private boolean mResourcesReleased;
+    private final Rect mVisibleRect = new Rect();
+
+    private final ComponentCallbacks2 mMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            BaseSeekBar.this.onTrimMemory(level);
+        }
+
+        @Override
+        public void onLowMemory() {
+            BaseSeekBar.this.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+    };
 
     public BaseSeekBar(Context context) {
         super(context);
@@ -61,6 +250,135 @@ public class BaseSeekBar extends View {
     }
     // View Methods ////////////////////////////////////////////////////////////
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(mMemoryCallbacks);
+        mTrimmedLowMemory = false;
+        updateThumbAnimationPaused();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getContext().getApplicationContext().unregisterComponentCallbacks(mMemoryCallbacks);
+        mThumbAnimator.setPaused(true);
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+        releaseResources();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateThumbAnimationPaused();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateThumbAnimationPaused();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mResourcesReleased && !isLowMemoryMode()) {
+            mResourcesReleased = false;
+            restoreResources();
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        final boolean debugOverlay = sDebugOverlayEnabled;
+        if (!debugOverlay) {
+            mDebugOverlay = null;
+        }
+        mDrawCallCount = 0;
+        if (mMetrics == null && !debugOverlay && !mAdaptiveQuality) {
+            super.draw(canvas);
+            return;
+        }
+        final long start = System.nanoTime();
+        super.draw(canvas);
+        final long drawNanos = System.nanoTime() - start;
+        if (mMetrics != null) {
+            mMetrics.record(SeekBarMetrics.HISTOGRAM_DRAW, drawNanos);
+        }
+        if (mAdaptiveQuality && mDragging && drawNanos > mDrawBudgetNanos
+                && mQuality < QUALITY_PRIMARY_LABEL_ONLY) {
+            // One step per slow frame; the next frame shows the effect.
+            setQuality(mQuality + 1);
+        }
+        if (debugOverlay) {
+            if (mDebugOverlay == null) {
+                mDebugOverlay = new DebugOverlay(getContext());
+                mDebugOverlay.onInvalidate(0, 0, getWidth(), getHeight());
+            }
+            mDebugOverlay.draw(canvas, drawNanos, getDrawCallCount(), getThumbBitmapByteCount());
+        }
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        if (mInputRecorder != null) {
+            mInputRecorder.record(event);
+        }
+        if (mAdaptiveQuality) {
+            trackDrag(event);
+        }
+        if (mTouchPredictor != null) {
+            mTouchPredictor.onTouchEvent(event);
+        }
+        if (mPredictionListener != null) {
+            trackVelocity(event);
+        }
+        if (mMetrics == null) {
+            return super.dispatchTouchEvent(event);
+        }
+        mMetrics.increment(SeekBarMetrics.COUNTER_TOUCH_EVENTS);
+        mTouchStartNanos = System.nanoTime();
+        try {
+            return super.dispatchTouchEvent(event);
+        } finally {
+            mTouchStartNanos = 0;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        if (mDebugOverlay != null) {
+            mDebugOverlay.onInvalidate(0, 0, getWidth(), getHeight());
+        }
+        if (mMetrics != null) {
+            mMetrics.increment(SeekBarMetrics.COUNTER_INVALIDATES);
+            if (mTouchStartNanos != 0) {
+                mMetrics.record(SeekBarMetrics.HISTOGRAM_TOUCH_TO_INVALIDATE, System.nanoTime() - mTouchStartNanos);
+                mTouchStartNanos = 0;
+            }
+        }
+        super.invalidate();
+    }
+
+    @Override
+    public void invalidate(int l, int t, int r, int b) {
+        if (mDebugOverlay != null) {
+            mDebugOverlay.onInvalidate(l, t, r, b);
+        }
+        super.invalidate(l, t, r, b);
+    }
+
+    @Override
+    public void invalidate(Rect dirty) {
+        if (mDebugOverlay != null) {
+            mDebugOverlay.onInvalidate(dirty.left, dirty.top, dirty.right, dirty.bottom);
+        }
+        super.invalidate(dirty);
+    }
+
     @Override
     public Parcelable onSaveInstanceState() {
 
@@ -79,6 +397,9 @@ public class BaseSeekBar extends View {
         bundle.putFloat("THUMB_RADIUS_DP", mThumbRadiusDP);
         bundle.putInt("THUMB_COLOR_NORMAL", mThumbColorNormal);
         bundle.putInt("THUMB_COLOR_PRESSED", mThumbColorPressed);
+        bundle.putFloat("THUMB_IMAGE_SIZE", mThumbImageSizePx);
+        bundle.putBoolean("THUMB_IMAGE_OPAQUE", mThumbImageOpaque);
+        bundle.putBoolean("ASYNC_THUMB_LOADING", mAsyncThumbLoading);
 
         return bundle;
     }
@@ -101,6 +422,9 @@ public class BaseSeekBar extends View {
             mThumbRadiusDP = bundle.getFloat("THUMB_RADIUS_DP");
             mThumbColorNormal = bundle.getInt("THUMB_COLOR_NORMAL");
             mThumbColorPressed = bundle.getInt("THUMB_COLOR_PRESSED");
+            mThumbImageSizePx = bundle.getFloat("THUMB_IMAGE_SIZE", DEFAULT_THUMB_IMAGE_SIZE_PX);
+            mThumbImageOpaque = bundle.getBoolean("THUMB_IMAGE_OPAQUE", DEFAULT_THUMB_IMAGE_OPAQUE);
+            mAsyncThumbLoading = bundle.getBoolean("ASYNC_THUMB_LOADING", DEFAULT_ASYNC_THUMB_LOADING);
 
 
         } else {
@@ -132,6 +456,9 @@ public class BaseSeekBar extends View {
             mThumbColorNormal = ta.getColor(R.styleable.SeekBar_thumbColorNormal, DEFAULT_THUMB_COLOR_NORMAL);
             mThumbColorPressed = ta.getColor(R.styleable.SeekBar_thumbColorPressed,
                     DEFAULT_THUMB_COLOR_PRESSED);
+            mThumbImageSizePx = ta.getDimension(R.styleable.SeekBar_thumbImageSize, DEFAULT_THUMB_IMAGE_SIZE_PX);
+            mThumbImageOpaque = ta.getBoolean(R.styleable.SeekBar_thumbImageOpaque, DEFAULT_THUMB_IMAGE_OPAQUE);
+            mAsyncThumbLoading = ta.getBoolean(R.styleable.SeekBar_asyncThumbLoading, DEFAULT_ASYNC_THUMB_LOADING);
 
         } finally {
 
@@ -181,6 +508,249 @@ public class BaseSeekBar extends View {
     protected boolean isValidTickCount(int tickCount) {
         return (tickCount > 1);
     }
+
+    /**
+     * Returns if the thumbs are drawn from images. Setting any of the circle
+     * attributes switches them to circles.
+     *
+     * @return boolean: whether the thumb images are drawn
+     */
+    protected boolean isBitmapThumb() {
+        return mThumbRadiusDP == -1 && mThumbColorNormal == -1 && mThumbColorPressed == -1;
+    }
+
+    /**
+     * Gets the thumb images for the given resources, reusing the current ones
+     * if nothing that affects decoding has changed. Pixels are only decoded
+     * when the thumbs are drawn as images. With async thumb loading the
+     * images are returned without pixels, the thumbs draw circles in their
+     * place and the bar is invalidated once the decode completes.
+     *
+     * @param thumbImageNormal resource id of the normal image
+     * @param thumbImagePressed resource id of the pressed image
+     * @return ThumbImages shared by both thumbs
+     */
+    protected ThumbImages obtainThumbImages(int thumbImageNormal, int thumbImagePressed) {
+        final boolean useBitmap = isBitmapThumb();
+        if (mThumbImages == null
+                || !mThumbImages.matches(thumbImageNormal, thumbImagePressed, mThumbImageSizePx, mThumbImageOpaque)) {
+            mThumbImages = ThumbImages.decodeBounds(getResources(), thumbImageNormal, thumbImagePressed,
+                    mThumbImageSizePx, mThumbImageOpaque);
+        }
+        if (useBitmap && !mResourcesReleased && !isLowMemoryMode()) {
+            loadThumbImagePixels();
+        }
+        return mThumbImages;
+    }
+
+    /**
+     * Decodes the pixels of the current thumb images if they have none, on
+     * the UI thread or in the background depending on async thumb loading.
+     */
+    private void loadThumbImagePixels() {
+        final ThumbImages images = mThumbImages;
+        if (images != null && !images.hasBitmaps()) {
+            if (mAsyncThumbLoading) {
+                images.decodePixelsAsync(getResources(), new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mMetrics != null) {
+                            mMetrics.record(SeekBarMetrics.HISTOGRAM_BITMAP_DECODE, images.getDecodeNanos());
+                        }
+                        // Thumbs rebuilt with other images in the meantime keep them.
+                        if (images == mThumbImages) {
+                            invalidate();
+                        }
+                    }
+                });
+            } else if (!images.isLoading()) {
+                images.decodePixels(getResources());
+                if (mMetrics != null) {
+                    mMetrics.record(SeekBarMetrics.HISTOGRAM_BITMAP_DECODE, images.getDecodeNanos());
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the decoded thumb images and other caches that can be rebuilt.
+     * The thumbs are drawn as circles until the resources are restored on the
+     * next draw. Called when the bar is detached or the app is trimmed;
+     * subclasses releasing their own caches must call through to super.
+     */
+    protected void releaseResources() {
+        if (mThumbImages != null) {
+            mThumbImages.releaseBitmaps();
+        }
+        mTickLabels.clear();
+        for (int i = 0, n = mLayers.size(); i < n; i++) {
+            mLayers.get(i).onReleaseResources();
+        }
+        mResourcesReleased = true;
+    }
+
+    /**
+     * Restores what {@link #releaseResources()} released. Called lazily on
+     * the first draw after the release, unless in low memory mode.
+     */
+    protected void restoreResources() {
+        if (isBitmapThumb()) {
+            loadThumbImagePixels();
+        }
+        for (int i = 0, n = mLayers.size(); i < n; i++) {
+            mLayers.get(i).onRestoreResources();
+        }
+    }
+
+    /**
+     * Handles {@link ComponentCallbacks2#onTrimMemory(int)}. Bars that are not
+     * on screen, or all bars once the UI is hidden, release their resources,
+     * and the default {@link FrameCache} is emptied once the UI is hidden.
+     * Visible bars of a running app that is low on memory switch to low
+     * memory mode until they are reattached.
+     *
+     * @param level the trim level
+     */
+    protected void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            FrameCache.evictDefault();
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN || !getGlobalVisibleRect(mVisibleRect)) {
+            releaseResources();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mTrimmedLowMemory = true;
+            releaseResources();
+            invalidate();
+        }
+    }
+
+    /**
+     * If this is set, the bar holds no thumb bitmaps and draws the thumbs as
+     * circles. Clearing it restores the images on the next draw.
+     *
+     * @param lowMemoryMode boolean whether to run in low memory mode
+     */
+    public void setLowMemoryMode(boolean lowMemoryMode) {
+        mLowMemoryMode = lowMemoryMode;
+        if (lowMemoryMode) {
+            releaseResources();
+        } else {
+            mTrimmedLowMemory = false;
+        }
+        invalidate();
+    }
+
+    /**
+     * Returns if the bar runs in low memory mode, either set by the app or
+     * entered because the app was trimmed while the bar was on screen.
+     *
+     * @return boolean: whether the bar is in low memory mode
+     */
+    public boolean isLowMemoryMode() {
+        return mLowMemoryMode || mTrimmedLowMemory;
+    }
+
+    /**
+     * Sets the adapter supplying the labels drawn under the ticks. Labels
+     * that would overlap are left out; which ones are shown is worked out once
+     * per size or tick count change.
+     *
+     * @param adapter the label adapter; null to draw no tick labels
+     */
+    public void setTickLabelAdapter(LabelAdapter adapter) {
+        if (mTickLabelPaint == null) {
+            mTickLabelPaint = new Paint();
+            mTickLabelPaint.setColor(DEFAULT_TICK_LABEL_TEXT_COLOR);
+            mTickLabelPaint.setAntiAlias(true);
+            mTickLabelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                    DEFAULT_TICK_LABEL_TEXT_SIZE_SP, getResources().getDisplayMetrics()));
+        }
+        mTickLabels.setAdapter(adapter);
+        onTickLabelsChanged();
+    }
+
+    /**
+     * Sets the text size of the tick labels.
+     *
+     * @param tickLabelTextSize Float specifying the text size in sp.
+     */
+    public void setTickLabelTextSize(float tickLabelTextSize) {
+        if (mTickLabelPaint != null) {
+            mTickLabelPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP,
+                    tickLabelTextSize, getResources().getDisplayMetrics()));
+            onTickLabelsChanged();
+        }
+    }
+
+    /**
+     * Sets the text color of the tick labels.
+     *
+     * @param tickLabelTextColor Integer specifying the text color.
+     */
+    public void setTickLabelTextColor(int tickLabelTextColor) {
+        if (mTickLabelPaint != null) {
+            mTickLabelPaint.setColor(tickLabelTextColor);
+            invalidate();
+        }
+    }
+
+    /**
+     * Drops the cached tick labels so they are requested from the adapter
+     * again, e.g. after the data behind it changed.
+     */
+    public void notifyTickLabelsChanged() {
+        mTickLabels.clear();
+        onTickLabelsChanged();
+    }
+
+    /**
+     * Lays out the tick labels for a bar with the given geometry.
+     *
+     * @param leftX x-coordinate of the first tick
+     * @param tickDistance distance between two ticks
+     * @param thumbHalfHeight half the height of the thumbs, which the labels
+     *            are placed under
+     * @return the layout; null if there are no tick labels
+     */
+    protected TickLabelLayout createTickLabelLayout(float leftX, float tickDistance, float thumbHalfHeight) {
+        if (mTickLabels.getAdapter() == null || getWidth() == 0) {
+            return null;
+        }
+        final float gap = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TICK_LABEL_GAP_DP,
+                getResources().getDisplayMetrics());
+        final float baselineY = getYPos() + thumbHalfHeight + gap - mTickLabelPaint.ascent();
+        return new TickLabelLayout(mTickLabels, mTickLabelPaint, leftX, tickDistance, mTickCount,
+                baselineY, 0, getWidth(), gap);
+    }
+
+    /**
+     * Called when the tick label adapter or text size changed. Subclasses
+     * lay the labels out again for their bar.
+     */
+    protected void onTickLabelsChanged() {
+        invalidate();
+    }
+
+    /**
+     * If this is set, thumb images are decoded on a background thread and the
+     * thumbs are drawn as circles until they are ready. Takes effect the next
+     * time the images are decoded.
+     *
+     * @param asyncThumbLoading boolean whether to decode thumb images off the
+     *            UI thread
+     */
+    public void setAsyncThumbLoading(boolean asyncThumbLoading) {
+        mAsyncThumbLoading = asyncThumbLoading;
+    }
+
+    /**
+     * Gets the number of bytes held by the decoded thumb images of this bar.
+     *
+     * @return the byte count; 0 if the thumbs are drawn as circles
+     */
+    public int getThumbBitmapByteCount() {
+        return (mThumbImages != null) ? mThumbImages.getByteCount() : 0;
+    }
     /**
      * Sets a listener to receive notifications of changes to the RangeBar. This
      * will overwrite any existing set listeners.
@@ -192,6 +762,817 @@ public class BaseSeekBar extends View {
         mListener = listener;
     }
 
+    /**
+     * Sets a listener told where a thumb being dragged is likely to come to
+     * rest, judging by the velocity of the drag. It is called whenever that
+     * differs from the current indices and from the previous prediction.
+     *
+     * @param listener the listener; null to stop predicting
+     */
+    public void setOnIndexPredictionListener(OnIndexPredictionListener listener) {
+        mPredictionListener = listener;
+        if (listener != null && mDragDecelerationPx == 0) {
+            mDragDecelerationPx = DRAG_DECELERATION_DP * getResources().getDisplayMetrics().density;
+            mMinPredictionVelocity = ViewConfiguration.get(getContext()).getScaledMinimumFlingVelocity();
+        }
+    }
+
+    /**
+     * Gets whether the subclasses should predict where a drag comes to rest.
+     */
+    protected boolean isPredictingIndices() {
+        return mPredictionListener != null;
+    }
+
+    /**
+     * Gets where a thumb dragged at the current velocity is expected to stop,
+     * assuming the finger slows down evenly.
+     *
+     * @param x the current x-coordinate of the thumb
+     * @return the predicted x-coordinate; x itself for slow drags
+     */
+    protected float getSettleX(float x) {
+        final float velocity = mDragVelocity;
+        if (Math.abs(velocity) < mMinPredictionVelocity) {
+            return x;
+        }
+        final float distance = velocity * velocity / (2f * mDragDecelerationPx);
+        return (velocity > 0) ? x + distance : x - distance;
+    }
+
+    /**
+     * Tells the prediction listener where the thumbs are expected to settle.
+     * Repeated predictions of the same indices are dropped.
+     *
+     * @param leftThumbIndex predicted index of the left thumb
+     * @param rightThumbIndex predicted index of the right thumb; -1 for single
+     *            thumb bars
+     */
+    protected void dispatchIndexPrediction(int leftThumbIndex, int rightThumbIndex) {
+        final OnIndexPredictionListener listener = mPredictionListener;
+        if (listener == null
+                || (leftThumbIndex == mPredictedLeftIndex && rightThumbIndex == mPredictedRightIndex)) {
+            return;
+        }
+        mPredictedLeftIndex = leftThumbIndex;
+        mPredictedRightIndex = rightThumbIndex;
+        listener.onIndexPredicted(this, leftThumbIndex, rightThumbIndex, mPredictionConfidence);
+    }
+
+    /**
+     * Installs a metrics hook that records draw, touch, listener and decode
+     * latencies and component rebuilds of this bar.
+     *
+     * @param metrics the metrics to record into; null to stop recording
+     */
+    public void setMetrics(SeekBarMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    public SeekBarMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Sets whether the bar lowers its rendering quality while it is dragged
+     * and drawing takes longer than its budget. Each slow frame lowers the
+     * quality one step: first anti-aliasing is turned off, then only every few
+     * ticks are drawn, then only the label of the dragged thumb. Full quality
+     * is restored when the thumb is released.
+     *
+     * @param adaptiveQuality true to adapt the quality
+     */
+    public void setAdaptiveQuality(boolean adaptiveQuality) {
+        mAdaptiveQuality = adaptiveQuality;
+        if (!adaptiveQuality) {
+            mDragging = false;
+            setQuality(QUALITY_FULL);
+        }
+    }
+
+    public boolean isAdaptiveQuality() {
+        return mAdaptiveQuality;
+    }
+
+    /**
+     * Sets the share of a 60Hz frame a draw may take before the quality is
+     * lowered.
+     *
+     * @param share the share, e.g. 0.5 for half a frame
+     */
+    public void setFrameBudgetShare(float share) {
+        if (share <= 0) {
+            throw new IllegalArgumentException("share must be positive");
+        }
+        mDrawBudgetNanos = (long) (FRAME_NANOS * share);
+    }
+
+    /**
+     * Gets the current rendering quality.
+     *
+     * @return one of the QUALITY_ constants
+     */
+    public int getQuality() {
+        return mQuality;
+    }
+
+    /**
+     * Changes the rendering quality and redraws.
+     *
+     * @param quality one of the QUALITY_ constants
+     */
+    protected void setQuality(int quality) {
+        if (quality == mQuality) {
+            return;
+        }
+        mQuality = quality;
+        onQualityChanged(quality);
+        invalidate();
+    }
+
+    /**
+     * Called when the rendering quality changed. Subclasses apply it to their
+     * bar, connecting line and thumbs.
+     *
+     * @param quality one of the QUALITY_ constants
+     */
+    protected void onQualityChanged(int quality) {
+    }
+
+    /**
+     * Gets the group this bar shares its range with.
+     *
+     * @return the group; null if the bar is in none
+     */
+    public RangeGroup getRangeGroup() {
+        return mRangeGroup;
+    }
+
+    /**
+     * Moves the thumbs to the given indices, clamped to the ticks of this bar,
+     * without rebuilding the thumbs or redrawing. Used by {@link RangeGroup}
+     * to mirror a change made on another member and by
+     * {@link #postThumbIndices(int, int)}.
+     *
+     * @param leftThumbIndex index of the left thumb
+     * @param rightThumbIndex index of the right thumb; ignored by single thumb
+     *            bars
+     * @param notify true to dispatch the change if the indices moved
+     */
+    protected void applyIndices(int leftThumbIndex, int rightThumbIndex, boolean notify) {
+    }
+
+    /**
+     * Gets whether {@link #applyIndices(int, int, boolean)} can currently move
+     * the thumbs, i.e. whether the bar can be driven by a {@link RangeGroup}
+     * or {@link #postThumbIndices(int, int)}. False unless a subclass
+     * overrides both methods; it may still return false in a mode where its
+     * thumbs do not stand for indices.
+     */
+    protected boolean canApplyIndices() {
+        return false;
+    }
+
+    /**
+     * Moves the thumbs to the given indices on the next frame. Unlike
+     * setThumbIndices this may be called from any thread and at any rate:
+     * only the newest indices posted before a frame are applied, the earlier
+     * ones are dropped. Applying them moves the existing thumbs, redraws once
+     * and notifies the listener at most once per frame.
+     * <p>
+     * Out of range indices are clamped to the ticks the bar has when the frame
+     * runs instead of throwing. If the bar cannot be moved by index then, see
+     * {@link #canApplyIndices()}, the indices are dropped.
+     *
+     * @param leftThumbIndex index of the left thumb
+     * @param rightThumbIndex index of the right thumb; ignored by single thumb
+     *            bars
+     */
+    public void postThumbIndices(int leftThumbIndex, int rightThumbIndex) {
+        // A non-negative left index keeps the packed value from ever being
+        // NO_POSTED_INDICES.
+        final long packed = ((long) Math.max(0, leftThumbIndex) << 32) | (rightThumbIndex & 0xffffffffL);
+        mPostedIndices.set(packed);
+        if (!mPostedIndicesScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            postOnNextFrame(mApplyPostedIndicesRunnable);
+        } else {
+            SeekBarExecutor.postToMain(mSchedulePostedIndicesRunnable);
+        }
+    }
+
+    /**
+     * Sets whether the thumbs glide into place when they snap to a tick on
+     * release and when the indices are changed programmatically, instead of
+     * jumping there. Moves are paused while the bar is not shown.
+     *
+     * @param enabled true to animate the thumbs
+     */
+    public void setThumbAnimationEnabled(boolean enabled) {
+        mThumbAnimationEnabled = enabled;
+        if (!enabled) {
+            mThumbAnimator.finishAll();
+        }
+    }
+
+    public boolean isThumbAnimationEnabled() {
+        return mThumbAnimationEnabled;
+    }
+
+    /**
+     * Sets how long a thumb takes to glide into place.
+     *
+     * @param durationMillis the duration in ms; 0 to jump
+     */
+    public void setThumbAnimationDuration(long durationMillis) {
+        mThumbAnimator.setDuration(durationMillis);
+    }
+
+    public long getThumbAnimationDuration() {
+        return mThumbAnimator.getDuration();
+    }
+
+    /**
+     * Moves a thumb to the given x-coordinate, animated if thumb animation is
+     * enabled. A move already running for the thumb is retargeted.
+     *
+     * @param thumb the thumb to move
+     * @param x the x-coordinate the thumb ends at
+     */
+    protected void moveThumbTo(BaseThumb thumb, float x) {
+        if (mThumbAnimationEnabled) {
+            mThumbAnimator.animateTo(thumb, x);
+        } else {
+            thumb.setX(x);
+        }
+    }
+
+    /**
+     * Ends the running thumb moves, placing the thumbs at their targets. Called
+     * before the user takes hold of a thumb.
+     */
+    protected void finishThumbAnimations() {
+        mThumbAnimator.finishAll();
+    }
+
+    /**
+     * Drops the running thumb moves. Called when the thumbs are replaced.
+     */
+    protected void cancelThumbAnimations() {
+        mThumbAnimator.cancelAll();
+    }
+
+    /**
+     * Sets whether a dragged thumb is drawn where the finger is predicted to
+     * be rather than at the last reported position, and touch events are
+     * delivered unbuffered while a thumb is pressed (API 21+). The indices
+     * and the listener keep following the reported positions.
+     *
+     * @param lowLatency true to draw the dragged thumb ahead of the finger
+     */
+    public void setLowLatencyMode(boolean lowLatency) {
+        if (lowLatency == (mTouchPredictor != null)) {
+            return;
+        }
+        mTouchPredictor = lowLatency ? new TouchPredictor() : null;
+        if (!lowLatency) {
+            removeCallbacks(mPredictionExpiredRunnable);
+        }
+        invalidate();
+    }
+
+    public boolean isLowLatencyMode() {
+        return mTouchPredictor != null;
+    }
+
+    /**
+     * Sets how far ahead of the last touch sample the dragged thumb is drawn in
+     * low latency mode. Longer horizons hide more latency but overshoot more
+     * on sudden stops.
+     *
+     * @param horizonMillis the horizon in ms, at most 32; 0 to not predict
+     */
+    public void setPredictionHorizon(long horizonMillis) {
+        if (mTouchPredictor == null) {
+            throw new IllegalStateException("Low latency mode is off");
+        }
+        mTouchPredictor.setHorizon(horizonMillis);
+    }
+
+    /**
+     * Asks for the rest of the gesture to be delivered as soon as each event
+     * arrives instead of batched per frame. Called by the subclasses when a
+     * thumb was pressed; does nothing unless low latency mode is on.
+     *
+     * @param event the down event that pressed a thumb
+     */
+    protected void requestLowLatencyInput(MotionEvent event) {
+        if (mTouchPredictor != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            requestUnbufferedDispatch(event);
+        }
+    }
+
+    /**
+     * Gets the x-coordinate to draw the dragged thumb at: the actual one in
+     * normal mode, the predicted one in low latency mode. While the prediction
+     * is ahead of the finger another redraw is scheduled for when it expires,
+     * so a thumb held still settles back under the finger without new events.
+     *
+     * @param x the actual x-coordinate of the thumb
+     * @param minX the smallest coordinate the thumb may be drawn at
+     * @param maxX the largest coordinate the thumb may be drawn at
+     * @return the x-coordinate to draw at
+     */
+    protected float getPredictedThumbX(float x, float minX, float maxX) {
+        if (mTouchPredictor == null) {
+            return x;
+        }
+        final float offset = mTouchPredictor.getOffset();
+        if (offset != 0) {
+            // Replaces the redraw posted by the previous frame.
+            removeCallbacks(mPredictionExpiredRunnable);
+            postDelayed(mPredictionExpiredRunnable, mTouchPredictor.getHorizon() + 1);
+        }
+        return Math.max(minX, Math.min(x + offset, maxX));
+    }
+
+    /**
+     * Sets the scale giving the value of each position along the bar. The
+     * ticks stay evenly spaced and stand for the values of the scale at their
+     * positions, see {@link #getValueAtIndex(int)}. The scale is sampled into
+     * a lookup table on every size change, so the conversions are cheap
+     * enough for every touch event.
+     *
+     * @param scale the scale; null to use indices only
+     */
+    public void setScale(Scale scale) {
+        mScale = scale;
+        if (scale == null) {
+            mScaleTable.clear();
+        } else if (mScaleLength > 0) {
+            mScaleTable.build(scale, mScaleLeftX, mScaleLength);
+        } else {
+            mScaleTable.build(scale, 0, UNLAID_SCALE_LENGTH);
+        }
+        invalidate();
+    }
+
+    public Scale getScale() {
+        return mScale;
+    }
+
+    /**
+     * Gets the value a tick stands for on the scale.
+     *
+     * @param index the 0-based index of the tick
+     * @return the value of the tick
+     */
+    public double getValueAtIndex(int index) {
+        checkScale();
+        return mScaleTable.valueAtFraction(index / (double) (mTickCount - 1));
+    }
+
+    /**
+     * Gets the tick standing for the value nearest to the given one.
+     *
+     * @param value a value on the scale
+     * @return the 0-based index of the tick
+     */
+    public int getNearestIndex(double value) {
+        checkScale();
+        return (int) Math.round(mScaleTable.fractionOf(value) * (mTickCount - 1));
+    }
+
+    /**
+     * Gets the value on the scale at an x-coordinate of the bar, e.g. the
+     * exact value under a dragged thumb between two ticks.
+     *
+     * @param x the x-coordinate in px
+     * @return the value, limited to the ends of the scale
+     */
+    public double getValueAtX(float x) {
+        checkScale();
+        return mScaleTable.valueAtX(x);
+    }
+
+    /**
+     * Gets the x-coordinate of a value on the scale.
+     *
+     * @param value a value on the scale
+     * @return the x-coordinate in px, limited to the ends of the bar
+     */
+    public float getXForValue(double value) {
+        checkScale();
+        return mScaleTable.xOf(value);
+    }
+
+    /**
+     * Samples the scale for the new extent of the bar. Called by the
+     * subclasses whenever they lay out their bar.
+     *
+     * @param leftX x-coordinate of the left end of the bar
+     * @param length length of the bar in px
+     */
+    protected void layoutScale(float leftX, float length) {
+        mScaleLeftX = leftX;
+        mScaleLength = length;
+        if (mScale != null) {
+            mScaleTable.build(mScale, leftX, length);
+        }
+    }
+
+    /**
+     * Adds a layer drawn behind the bar and the thumbs, on top of the layers
+     * added before.
+     *
+     * @param layer the layer to add
+     */
+    public void addLayer(BarLayer layer) {
+        if (mLayers.contains(layer)) {
+            return;
+        }
+        layer.attach(this);
+        mLayers.add(layer);
+        if (mLayerLength > 0) {
+            layer.layout(mLayerLeftX, 0, mLayerLeftX + mLayerLength, getHeight(), getYPos(), mTickCount);
+        }
+        invalidate();
+    }
+
+    /**
+     * Removes a layer added with {@link #addLayer(BarLayer)}.
+     *
+     * @param layer the layer to remove
+     */
+    public void removeLayer(BarLayer layer) {
+        if (mLayers.remove(layer)) {
+            layer.detach();
+            invalidate();
+        }
+    }
+
+    /**
+     * Lays the layers out along the bar. Called by the subclasses whenever
+     * they lay out their bar or change its tick count.
+     *
+     * @param leftX x-coordinate of the first tick
+     * @param length distance from the first to the last tick in px
+     */
+    protected void layoutLayers(float leftX, float length) {
+        mLayerLeftX = leftX;
+        mLayerLength = length;
+        for (int i = 0, n = mLayers.size(); i < n; i++) {
+            mLayers.get(i).layout(leftX, 0, leftX + length, getHeight(), getYPos(), mTickCount);
+        }
+    }
+
+    /**
+     * Draws the layers. Called by the subclasses before they draw the bar.
+     *
+     * @param canvas the canvas to draw on
+     * @param leftIndex index of the left end of the selection
+     * @param rightIndex index of the right end of the selection
+     * @param leftX x-coordinate of the left end of the selection
+     * @param rightX x-coordinate of the right end of the selection
+     */
+    protected void drawLayers(Canvas canvas, int leftIndex, int rightIndex, float leftX, float rightX) {
+        for (int i = 0, n = mLayers.size(); i < n; i++) {
+            mLayers.get(i).draw(canvas, leftIndex, rightIndex, leftX, rightX);
+        }
+    }
+
+    /**
+     * Sets the index counting the items in a range of ticks, so that
+     * {@link OnRangeBarChangeListener} can show the count of the selection
+     * through {@link #getCountInRange(int, int)} without scanning the data.
+     * The index must be built for the tick count of this bar and rebuilt
+     * when it changes; until then no items are counted.
+     *
+     * @param index the index; null to remove it
+     */
+    public void setRangeCountIndex(RangeCountIndex index) {
+        mRangeCountIndex = index;
+    }
+
+    public RangeCountIndex getRangeCountIndex() {
+        return mRangeCountIndex;
+    }
+
+    /**
+     * Gets the number of items in a selection, as passed to
+     * {@link OnRangeBarChangeListener}.
+     *
+     * @param leftThumbIndex index of the left thumb
+     * @param rightThumbIndex index of the right thumb; -1 for single thumb
+     *            bars, which select from the first tick to the thumb
+     * @return the count; 0 without a {@link RangeCountIndex} built for the
+     *         tick count of this bar
+     */
+    public long getCountInRange(int leftThumbIndex, int rightThumbIndex) {
+        final RangeCountIndex index = mRangeCountIndex;
+        if (index == null || index.getTickCount() != mTickCount) {
+            // Counts of other ticks would be silently clamped to these.
+            return 0;
+        }
+        return (rightThumbIndex < 0)
+                ? index.count(0, leftThumbIndex)
+                : index.count(leftThumbIndex, rightThumbIndex);
+    }
+
+    /**
+     * Installs a watchdog that reports listener callbacks exceeding its budget.
+     *
+     * @param watchdog the watchdog; null to stop watching
+     */
+    public void setListenerWatchdog(ListenerWatchdog watchdog) {
+        mListenerWatchdog = watchdog;
+    }
+
+    /**
+     * Sets whether index changes are delivered to the listener as they happen
+     * or coalesced to the latest indices once per frame. Coalescing keeps a
+     * slow listener from stalling the drag, at the cost of skipping
+     * intermediate indices.
+     *
+     * @param coalesced true to deliver at most once per frame
+     */
+    public void setCoalescedDispatch(boolean coalesced) {
+        mCoalescedDispatch = coalesced;
+    }
+
+    public boolean isCoalescedDispatch() {
+        return mCoalescedDispatch;
+    }
+
+    /**
+     * Turns the debug overlay on or off for every bar in the process. Each bar
+     * picks the change up on its next draw. While off, the overlay costs one
+     * static read per draw.
+     *
+     * @param enabled true to draw the overlay
+     */
+    public static void setDebugOverlayEnabled(boolean enabled) {
+        sDebugOverlayEnabled = enabled;
+    }
+
+    public static boolean isDebugOverlayEnabled() {
+        return sDebugOverlayEnabled;
+    }
+
+    /**
+     * Adds canvas calls issued while drawing to the count shown by the debug
+     * overlay. Called by the subclasses and layers with the calls each of
+     * their draw paths made.
+     *
+     * @param count the number of canvas calls
+     */
+    protected void countDrawCalls(int count) {
+        mDrawCallCount += count;
+    }
+
+    /**
+     * Gets the number of canvas calls counted during the last draw.
+     */
+    protected int getDrawCallCount() {
+        return mDrawCallCount;
+    }
+
+    /**
+     * Installs a recorder that captures every touch event this bar receives,
+     * so the gesture can be replayed with {@link InputReplayer}.
+     *
+     * @param recorder the recorder; null to stop recording
+     */
+    public void setInputRecorder(InputRecorder recorder) {
+        mInputRecorder = recorder;
+    }
+
+    /**
+     * Notifies the listener of new thumb indices. All index changes of the
+     * subclasses go through here.
+     *
+     * @param leftThumbIndex index of the left thumb
+     * @param rightThumbIndex index of the right thumb; -1 for single thumb bars
+     */
+    protected void dispatchIndexChange(int leftThumbIndex, int rightThumbIndex) {
+        if (leftThumbIndex == mPredictedLeftIndex && rightThumbIndex == mPredictedRightIndex) {
+            // Reached the prediction; the same one may be made again later.
+            mPredictedLeftIndex = -1;
+            mPredictedRightIndex = -1;
+        }
+        if (mRangeGroup != null) {
+            mRangeGroup.onMemberChanged(this, leftThumbIndex, rightThumbIndex);
+        }
+        if (mListener == null) {
+            return;
+        }
+        if (mCoalescedDispatch) {
+            mPendingLeftIndex = leftThumbIndex;
+            mPendingRightIndex = rightThumbIndex;
+            if (!mDispatchPending) {
+                mDispatchPending = true;
+                postOnNextFrame(mDispatchPendingRunnable);
+            }
+            return;
+        }
+        deliverIndexChange(leftThumbIndex, rightThumbIndex);
+    }
+
+    /**
+     * Notifies the value listener of new thumb values. Goes through the same
+     * watchdog, metrics, tracing and coalescing as index changes.
+     *
+     * @param leftValue value of the left thumb
+     * @param rightValue value of the right thumb
+     */
+    protected void dispatchValueChange(long leftValue, long rightValue) {
+        if (mValueListener == null) {
+            return;
+        }
+        if (mCoalescedDispatch) {
+            mPendingLeftValue = leftValue;
+            mPendingRightValue = rightValue;
+            if (!mValueDispatchPending) {
+                mValueDispatchPending = true;
+                postOnNextFrame(mDispatchPendingValuesRunnable);
+            }
+            return;
+        }
+        deliverValueChange(leftValue, rightValue);
+    }
+
+    /**
+     * Runs the task at the start of the next frame, or after a frame's time
+     * before API 16.
+     *
+     * @param task the task to run on the UI thread
+     */
+    protected void postOnNextFrame(Runnable task) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postOnAnimation(task);
+        } else {
+            postDelayed(task, FRAME_DELAY_MILLIS);
+        }
+    }
+
+    private void applyPostedIndices() {
+        // Cleared before reading, so indices posted from here on schedule
+        // another frame instead of being lost.
+        mPostedIndicesScheduled.set(false);
+        final long packed = mPostedIndices.getAndSet(NO_POSTED_INDICES);
+        if (packed == NO_POSTED_INDICES || !canApplyIndices()) {
+            // Dropped if the bar cannot be moved by index, e.g. because it
+            // switched modes since the indices were posted.
+            return;
+        }
+        applyIndices((int) (packed >> 32), (int) packed, true);
+        invalidate();
+    }
+
+    private void checkScale() {
+        if (mScale == null) {
+            throw new IllegalStateException("No scale set, call setScale first");
+        }
+    }
+
+    private void updateThumbAnimationPaused() {
+        // Called from the View constructor for a bar inflated as not visible.
+        if (mThumbAnimator == null) {
+            return;
+        }
+        mThumbAnimator.setPaused(getWindowVisibility() != VISIBLE || !isShown());
+    }
+
+    private void trackVelocity(MotionEvent event) {
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mVelocityTracker.clear();
+                mVelocityTracker.addMovement(event);
+                mDragVelocity = 0;
+                mPredictionConfidence = 0;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                mVelocityTracker.addMovement(event);
+                mVelocityTracker.computeCurrentVelocity(1000);
+                final float velocity = mVelocityTracker.getXVelocity();
+                // A drag whose velocity keeps its direction and size is more
+                // likely to end where it is heading.
+                final float change = Math.abs(velocity - mDragVelocity);
+                final float scale = Math.max(Math.abs(velocity), Math.abs(mDragVelocity));
+                mPredictionConfidence = (scale == 0 || velocity * mDragVelocity < 0)
+                        ? 0 : Math.max(0, 1 - change / scale);
+                mDragVelocity = velocity;
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mVelocityTracker.clear();
+                mDragVelocity = 0;
+                mPredictionConfidence = 0;
+                mPredictedLeftIndex = -1;
+                mPredictedRightIndex = -1;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void trackDrag(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDragging = true;
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mDragging = false;
+                setQuality(QUALITY_FULL);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void deliverIndexChange(int leftThumbIndex, int rightThumbIndex) {
+        final OnRangeBarChangeListener listener = mListener;
+        if (listener == null) {
+            return;
+        }
+        final ListenerWatchdog watchdog = mListenerWatchdog;
+        final boolean timed = beginDelivery(watchdog);
+        try {
+            if (!timed) {
+                listener.onIndexChangeListener(this, leftThumbIndex, rightThumbIndex);
+            } else {
+                final long start = System.nanoTime();
+                listener.onIndexChangeListener(this, leftThumbIndex, rightThumbIndex);
+                final long duration = recordDelivery(start);
+                if (watchdog != null && watchdog.end(this, listener, duration)) {
+                    mCoalescedDispatch = true;
+                }
+            }
+        } finally {
+            SeekBarTrace.endSection();
+        }
+    }
+
+    private void deliverValueChange(long leftValue, long rightValue) {
+        final OnRangeValueChangeListener listener = mValueListener;
+        if (listener == null) {
+            return;
+        }
+        final ListenerWatchdog watchdog = mListenerWatchdog;
+        final boolean timed = beginDelivery(watchdog);
+        try {
+            if (!timed) {
+                listener.onValueChangeListener(this, leftValue, rightValue);
+            } else {
+                final long start = System.nanoTime();
+                listener.onValueChangeListener(this, leftValue, rightValue);
+                final long duration = recordDelivery(start);
+                if (watchdog != null && watchdog.end(this, listener, duration)) {
+                    mCoalescedDispatch = true;
+                }
+            }
+        } finally {
+            SeekBarTrace.endSection();
+        }
+    }
+
+    /**
+     * Starts a listener callback: tells the debug overlay, opens the trace
+     * section the caller closes and starts the watchdog.
+     *
+     * @return true if the callback is to be timed
+     */
+    private boolean beginDelivery(ListenerWatchdog watchdog) {
+        if (mDebugOverlay != null) {
+            mDebugOverlay.onCallback();
+        }
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_DISPATCH);
+        if (watchdog != null) {
+            watchdog.begin();
+        }
+        return mMetrics != null || watchdog != null;
+    }
+
+    /**
+     * Records how long a timed callback took.
+     *
+     * @param start the System.nanoTime() before the callback
+     * @return the duration in nanoseconds
+     */
+    private long recordDelivery(long start) {
+        final long duration = System.nanoTime() - start;
+        if (mMetrics != null) {
+            mMetrics.record(SeekBarMetrics.HISTOGRAM_LISTENER, duration);
+        }
+        return duration;
+    }
+
     public int getTickCount() {
         return mTickCount;
     }
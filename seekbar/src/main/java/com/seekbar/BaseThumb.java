@@ -9,6 +9,8 @@ public class BaseThumb {
     public float getX() {
         return 0;
     }
+    public void setX(float x) {
+    }
     public float getY() {
         return 0;
     }
@@ -48,10 +48,20 @@ public class ConnectingLine {
      * @param canvas the Canvas to draw to
      * @param leftThumb the left thumb
      * @param rightThumb the right thumb
+     * @return the number of canvas calls issued
      */
-    public void draw(Canvas canvas, BaseThumb leftThumb, BaseThumb rightThumb) {
+    public int draw(Canvas canvas, BaseThumb leftThumb, BaseThumb rightThumb) {
         canvas.drawLine(leftThumb.getX(), mY, rightThumb.getX(), mY, mPaint);
+        return 1;
     }
+
+    /**
+     * Sets whether the line is drawn anti-aliased.
+     */
+    public void setAntiAlias(boolean antiAlias) {
+        mPaint.setAntiAlias(antiAlias);
+    }
+
     /**
      * dp转px
      *
@@ -0,0 +1,111 @@
+package com.seekbar;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.TypedValue;
+
+/**
+ * Draws the debug overlay of one bar: the last invalidated region, tinted in
+ * alternating colors so every redraw flickers, and one line of text with the
+ * draw time, the number of canvas calls, the listener callback rate and the
+ * bitmap memory held. Created on the first draw with the overlay enabled.
+ */
+class DebugOverlay {
+
+    // Private Constants ///////////////////////////////////////////////////////
+
+    private static final float TEXT_SIZE_SP = 9;
+    private static final int TEXT_COLOR = 0xffffffff;
+    private static final int TEXT_BACKGROUND_COLOR = 0xa0000000;
+    private static final int[] REGION_COLORS = {0x30ff0000, 0x3000ff00};
+
+    private static final long RATE_WINDOW_NANOS = 1000000000L;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mBackgroundPaint = new Paint();
+    private final Paint mRegionPaint = new Paint();
+    private final StringBuilder mText = new StringBuilder();
+    private final float mPaddingPx;
+
+    private final Rect mInvalidated = new Rect();
+    private int mDrawCount;
+
+    // Listener callbacks counted in the current window, and the rate of the
+    // last complete one.
+    private long mWindowStartNanos;
+    private int mWindowCallbacks;
+    private int mCallbacksPerSecond;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    DebugOverlay(Context ctx) {
+        mTextPaint.setColor(TEXT_COLOR);
+        mTextPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                ctx.getResources().getDisplayMetrics()));
+        mBackgroundPaint.setColor(TEXT_BACKGROUND_COLOR);
+        mPaddingPx = mTextPaint.getTextSize() / 4f;
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    void onInvalidate(int left, int top, int right, int bottom) {
+        mInvalidated.set(left, top, right, bottom);
+    }
+
+    void onCallback() {
+        final long now = System.nanoTime();
+        rollWindow(now);
+        mWindowCallbacks++;
+    }
+
+    /**
+     * Draws the overlay on top of the bar.
+     *
+     * @param canvas the canvas the bar was drawn on
+     * @param drawNanos the time the bar took to draw
+     * @param drawCalls the number of canvas calls the bar issued
+     * @param bitmapBytes the bytes held by the bar's bitmaps
+     */
+    void draw(Canvas canvas, long drawNanos, int drawCalls, int bitmapBytes) {
+        rollWindow(System.nanoTime());
+
+        if (!mInvalidated.isEmpty()) {
+            mRegionPaint.setColor(REGION_COLORS[mDrawCount++ % REGION_COLORS.length]);
+            canvas.drawRect(mInvalidated, mRegionPaint);
+        }
+
+        mText.setLength(0);
+        final long micros = drawNanos / 1000;
+        mText.append(micros / 1000).append('.');
+        final long fraction = micros % 1000 / 10;
+        if (fraction < 10) {
+            mText.append('0');
+        }
+        mText.append(fraction).append("ms ");
+        mText.append(drawCalls).append("dc ");
+        mText.append(mCallbacksPerSecond).append("cb/s ");
+        mText.append(bitmapBytes / 1024).append("KB");
+
+        final float width = mTextPaint.measureText(mText, 0, mText.length());
+        final Paint.FontMetrics fm = mTextPaint.getFontMetrics();
+        final float height = fm.descent - fm.ascent;
+        canvas.drawRect(0, 0, width + 2 * mPaddingPx, height + 2 * mPaddingPx, mBackgroundPaint);
+        canvas.drawText(mText, 0, mText.length(), mPaddingPx, mPaddingPx - fm.ascent, mTextPaint);
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void rollWindow(long now) {
+        final long elapsed = now - mWindowStartNanos;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            // A window without callbacks longer than one second reads as 0.
+            mCallbacksPerSecond = (elapsed < 2 * RATE_WINDOW_NANOS) ? mWindowCallbacks : 0;
+            mWindowCallbacks = 0;
+            mWindowStartNanos = now;
+        }
+    }
+}
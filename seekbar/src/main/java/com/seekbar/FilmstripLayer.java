@@ -0,0 +1,350 @@
+package com.seekbar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draws frames of a video along the bar, e.g. to pick a trim range with the
+ * thumbs. The strip spans the bar from the first to the last tick, so the
+ * frame under a thumb is the one at the thumb's position; the parts outside
+ * the selection are dimmed.
+ * <p>
+ * The strip is cut into slots of the frame's aspect ratio whenever it is laid
+ * out or its visible range changes. Frames missing from the {@link FrameCache}
+ * are requested from the {@link FrameProvider} on
+ * {@link SeekBarExecutor#getBackground()}, and a placeholder is drawn in their
+ * slot until they arrive. A new layout cancels the requests of the old slots
+ * that have not started yet and drops the results of the others. When the
+ * bar releases its resources the frames are let go, and the missing ones are
+ * requested again when it restores them.
+ */
+public class FilmstripLayer extends BarLayer {
+
+    public static final int DEFAULT_PLACEHOLDER_COLOR = 0x22000000;
+    public static final int DEFAULT_DIM_COLOR = 0x99FFFFFF;
+    public static final float DEFAULT_ASPECT_RATIO = 16f / 9f;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Paint mFramePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint mPlaceholderPaint = new Paint();
+    private final Paint mDimPaint = new Paint();
+
+    private FrameProvider mProvider;
+    private FrameCache mCache = FrameCache.getDefault();
+    private long mDurationUs;
+
+    // Shown part of the video; an end of -1 shows all of it
+    private long mVisibleStartUs;
+    private long mVisibleEndUs = -1;
+
+    private float mAspectRatio = DEFAULT_ASPECT_RATIO;
+    private float mStripHeight = -1;
+
+    // Bumped by every layout; requests of older layouts are cancelled.
+    // Read by the background threads.
+    private final AtomicInteger mLayoutGeneration = new AtomicInteger();
+
+    private int mSlotCount;
+    private int mSlotWidth;
+    private int mSlotHeight;
+    private long[] mSlotTimes = new long[0];
+    private RectF[] mSlotRects = new RectF[0];
+    // Share of the frame width shown; less than 1 in the cut off last slot
+    private float[] mSlotCrops = new float[0];
+    private Bitmap[] mSlotFrames = new Bitmap[0];
+    private final Rect mFrameSrc = new Rect();
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    public FilmstripLayer() {
+        mPlaceholderPaint.setColor(DEFAULT_PLACEHOLDER_COLOR);
+        mDimPaint.setColor(DEFAULT_DIM_COLOR);
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Sets the video to show.
+     *
+     * @param provider the provider of the frames; null to remove the strip
+     * @param durationUs the length of the video in microseconds
+     */
+    public void setFrameProvider(FrameProvider provider, long durationUs) {
+        if (provider != null && durationUs <= 0) {
+            throw new IllegalArgumentException("durationUs must be positive");
+        }
+        mProvider = provider;
+        mDurationUs = durationUs;
+        mVisibleStartUs = 0;
+        mVisibleEndUs = -1;
+        buildSlots();
+        invalidate();
+    }
+
+    public FrameProvider getFrameProvider() {
+        return mProvider;
+    }
+
+    /**
+     * Sets the cache the frames are kept in, e.g. one shared by the bars of a
+     * single editor screen only.
+     *
+     * @param cache the cache; null for {@link FrameCache#getDefault()}
+     */
+    public void setFrameCache(FrameCache cache) {
+        mCache = (cache != null) ? cache : FrameCache.getDefault();
+        buildSlots();
+        invalidate();
+    }
+
+    /**
+     * Shows only a part of the video across the bar, e.g. to zoom in.
+     *
+     * @param startUs the time at the first tick in microseconds
+     * @param endUs the time at the last tick; -1 for the end of the video
+     */
+    public void setVisibleRange(long startUs, long endUs) {
+        if (endUs >= 0 && endUs <= startUs) {
+            throw new IllegalArgumentException("endUs must be greater than startUs");
+        }
+        mVisibleStartUs = Math.max(0, startUs);
+        mVisibleEndUs = endUs;
+        buildSlots();
+        invalidate();
+    }
+
+    /**
+     * Sets the width to height ratio of the slots.
+     */
+    public void setAspectRatio(float aspectRatio) {
+        if (!(aspectRatio > 0)) {
+            throw new IllegalArgumentException("aspectRatio must be positive");
+        }
+        mAspectRatio = aspectRatio;
+        buildSlots();
+        invalidate();
+    }
+
+    /**
+     * Sets the height of the strip, centered on the bar line.
+     *
+     * @param stripHeight the height in px; -1 to use the height of the bar
+     */
+    public void setStripHeight(float stripHeight) {
+        mStripHeight = stripHeight;
+        buildSlots();
+        invalidate();
+    }
+
+    /**
+     * Sets the colors of the empty slots and of the veil over the parts
+     * outside the selection.
+     */
+    public void setColors(int placeholderColor, int dimColor) {
+        mPlaceholderPaint.setColor(placeholderColor);
+        mDimPaint.setColor(dimColor);
+        invalidate();
+    }
+
+    // BarLayer Methods ////////////////////////////////////////////////////////
+
+    @Override
+    protected void onLayout() {
+        buildSlots();
+    }
+
+    @Override
+    protected void draw(Canvas canvas, int leftIndex, int rightIndex, float leftX, float rightX) {
+        final int n = mSlotCount;
+        if (n == 0) {
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            final RectF rect = mSlotRects[i];
+            final Bitmap frame = mSlotFrames[i];
+            if (frame == null || frame.isRecycled()) {
+                canvas.drawRect(rect, mPlaceholderPaint);
+            } else {
+                mFrameSrc.set(0, 0, Math.max(1, (int) (frame.getWidth() * mSlotCrops[i])), frame.getHeight());
+                canvas.drawBitmap(frame, mFrameSrc, rect, mFramePaint);
+            }
+        }
+        int count = n;
+        final float top = mSlotRects[0].top;
+        final float bottom = mSlotRects[0].bottom;
+        if (leftX > getLeft()) {
+            canvas.drawRect(getLeft(), top, leftX, bottom, mDimPaint);
+            count++;
+        }
+        if (rightX < getRight()) {
+            canvas.drawRect(rightX, top, getRight(), bottom, mDimPaint);
+            count++;
+        }
+        countDrawCalls(count);
+    }
+
+    @Override
+    protected void onRemoved() {
+        mLayoutGeneration.incrementAndGet();
+        mSlotCount = 0;
+        Arrays.fill(mSlotFrames, null);
+    }
+
+    @Override
+    protected void onReleaseResources() {
+        // Keeps the slots, so placeholders are drawn until the restore.
+        mLayoutGeneration.incrementAndGet();
+        Arrays.fill(mSlotFrames, null);
+    }
+
+    @Override
+    protected void onRestoreResources() {
+        requestMissingFrames();
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Gets the number of slots a strip is cut into; the last one may be cut
+     * off.
+     *
+     * @param length the length of the strip in px
+     * @param slotWidth the width of a full slot in px
+     */
+    static int getSlotCount(float length, int slotWidth) {
+        return (int) Math.ceil(length / slotWidth);
+    }
+
+    /**
+     * Gets the share of the frame width shown in a slot.
+     *
+     * @param slot the 0-based index of the slot
+     * @param length the length of the strip in px
+     * @param slotWidth the width of a full slot in px
+     * @return 1, or less for the cut off last slot
+     */
+    static float getSlotCrop(int slot, float length, int slotWidth) {
+        final float slotLeft = slot * slotWidth;
+        return (Math.min(slotLeft + slotWidth, length) - slotLeft) / slotWidth;
+    }
+
+    /**
+     * Gets the time of the frame shown in a slot: the one at the center of
+     * the full slot, so that a frame stands where its time is on the bar.
+     *
+     * @param slot the 0-based index of the slot
+     * @param length the length of the strip in px
+     * @param slotWidth the width of a full slot in px
+     * @param startUs the time at the start of the strip
+     * @param endUs the time at the end of the strip
+     */
+    static long getSlotTime(int slot, float length, int slotWidth, long startUs, long endUs) {
+        final float center = (slot * slotWidth + slotWidth / 2f) / length;
+        return startUs + (long) ((endUs - startUs) * (double) Math.min(center, 1f));
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void buildSlots() {
+        mLayoutGeneration.incrementAndGet();
+        Arrays.fill(mSlotFrames, null);
+        mSlotCount = 0;
+        final FrameProvider provider = mProvider;
+        if (provider == null || !isLaidOut()) {
+            return;
+        }
+
+        final float left = getLeft();
+        final float length = getRight() - left;
+        final float barY = getBarY();
+        final float half = Math.min(barY - getTop(), getBottom() - barY);
+        final float height = (mStripHeight >= 0) ? Math.min(mStripHeight, half * 2) : half * 2;
+        mSlotHeight = Math.max(1, Math.round(height));
+        mSlotWidth = Math.max(1, Math.round(height * mAspectRatio));
+        final int n = getSlotCount(length, mSlotWidth);
+        if (mSlotRects.length < n) {
+            mSlotTimes = new long[n];
+            mSlotRects = new RectF[n];
+            mSlotCrops = new float[n];
+            mSlotFrames = new Bitmap[n];
+            for (int i = 0; i < n; i++) {
+                mSlotRects[i] = new RectF();
+            }
+        }
+
+        final long start = Math.min(mVisibleStartUs, mDurationUs);
+        final long end = (mVisibleEndUs < 0) ? mDurationUs : Math.min(mVisibleEndUs, mDurationUs);
+        final float top = barY - mSlotHeight / 2f;
+        for (int i = 0; i < n; i++) {
+            final float slotLeft = left + i * mSlotWidth;
+            mSlotRects[i].set(slotLeft, top, Math.min(slotLeft + mSlotWidth, left + length), top + mSlotHeight);
+            mSlotCrops[i] = getSlotCrop(i, length, mSlotWidth);
+            mSlotTimes[i] = getSlotTime(i, length, mSlotWidth, start, end);
+        }
+        mSlotCount = n;
+        requestMissingFrames();
+    }
+
+    /**
+     * Fills the empty slots from the cache and requests the frames missing
+     * there.
+     */
+    private void requestMissingFrames() {
+        final FrameProvider provider = mProvider;
+        final FrameCache cache = mCache;
+        for (int i = 0, n = mSlotCount; i < n; i++) {
+            if (mSlotFrames[i] != null) {
+                continue;
+            }
+            final Bitmap frame = cache.get(provider, mSlotTimes[i], mSlotWidth, mSlotHeight);
+            if (frame != null) {
+                mSlotFrames[i] = frame;
+            } else {
+                requestFrame(i);
+            }
+        }
+    }
+
+    private void requestFrame(final int slot) {
+        final int generation = mLayoutGeneration.get();
+        final FrameProvider provider = mProvider;
+        final FrameCache cache = mCache;
+        final long timeUs = mSlotTimes[slot];
+        final int width = mSlotWidth;
+        final int height = mSlotHeight;
+        SeekBarExecutor.getBackground().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation != mLayoutGeneration.get()) {
+                    // The slot went away before its turn came.
+                    return;
+                }
+                cache.load(provider, timeUs, width, height, new FrameCache.OnFrameLoadedListener() {
+                    @Override
+                    public void onFrameLoaded(final Bitmap frame) {
+                        if (frame == null) {
+                            return;
+                        }
+                        SeekBarExecutor.postToMain(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (generation != mLayoutGeneration.get()) {
+                                    return;
+                                }
+                                mSlotFrames[slot] = frame;
+                                invalidate();
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,174 @@
+package com.seekbar;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * LRU cache of video frames, bounded by the bytes of their pixels and keyed
+ * by provider, time and size. {@link FilmstripLayer}s use the default cache
+ * unless given another, so bars showing the same video share their frames,
+ * and a frame requested by several layers at once is loaded only once. The
+ * bars empty the default cache when the app's UI is hidden; other caches are
+ * up to the app. All methods may be called from any thread.
+ */
+public final class FrameCache {
+
+    private static FrameCache sDefault;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final LruCache<Key, Bitmap> mFrames;
+    // Frames being loaded and who else asked for them; guarded by itself
+    private final HashMap<Key, ArrayList<OnFrameLoadedListener>> mLoading = new HashMap<>();
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * @param maxBytes the size of the pixels of all frames kept
+     */
+    public FrameCache(int maxBytes) {
+        mFrames = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap frame) {
+                return frame.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Gets the cache shared by all layers not given another one. It keeps up
+     * to a sixteenth of the heap.
+     */
+    public static synchronized FrameCache getDefault() {
+        if (sDefault == null) {
+            sDefault = new FrameCache((int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE));
+        }
+        return sDefault;
+    }
+
+    /**
+     * Empties the default cache if it was created.
+     */
+    static synchronized void evictDefault() {
+        if (sDefault != null) {
+            sDefault.evictAll();
+        }
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Drops all frames, e.g. when the app is asked to trim its memory.
+     */
+    public void evictAll() {
+        mFrames.evictAll();
+    }
+
+    /**
+     * Gets the size of the pixels of the frames kept.
+     */
+    public int getSize() {
+        return mFrames.size();
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    Bitmap get(FrameProvider provider, long timeUs, int width, int height) {
+        return mFrames.get(new Key(provider, timeUs, width, height));
+    }
+
+    /**
+     * Gets a frame, loading it from the provider if it is not cached. While a
+     * frame is loaded, other requests for it do not load it again or wait:
+     * they return at once and their listeners are told when that load is
+     * done. Called on a background thread.
+     *
+     * @param listener told about the frame, on the thread that got it
+     */
+    void load(FrameProvider provider, long timeUs, int width, int height, OnFrameLoadedListener listener) {
+        final Key key = new Key(provider, timeUs, width, height);
+        Bitmap frame = mFrames.get(key);
+        if (frame == null) {
+            synchronized (mLoading) {
+                final ArrayList<OnFrameLoadedListener> waiting = mLoading.get(key);
+                if (waiting != null) {
+                    waiting.add(listener);
+                    return;
+                }
+                // Loaded since the first look, unless the load got none.
+                frame = mFrames.get(key);
+                if (frame == null) {
+                    mLoading.put(key, new ArrayList<OnFrameLoadedListener>());
+                }
+            }
+        }
+        if (frame != null) {
+            listener.onFrameLoaded(frame);
+            return;
+        }
+
+        try {
+            frame = provider.loadFrame(timeUs, width, height);
+            if (frame != null) {
+                mFrames.put(key, frame);
+            }
+        } finally {
+            // Also if the provider threw, so that the key can be loaded again.
+            final ArrayList<OnFrameLoadedListener> waiting;
+            synchronized (mLoading) {
+                waiting = mLoading.remove(key);
+            }
+            for (int i = 0, n = waiting.size(); i < n; i++) {
+                waiting.get(i).onFrameLoaded(frame);
+            }
+        }
+        listener.onFrameLoaded(frame);
+    }
+
+    // OnFrameLoadedListener ///////////////////////////////////////////////////
+
+    interface OnFrameLoadedListener {
+        /**
+         * @param frame the frame; null if the provider has none
+         */
+        void onFrameLoaded(Bitmap frame);
+    }
+
+    // Key /////////////////////////////////////////////////////////////////////
+
+    private static final class Key {
+
+        private final FrameProvider mProvider;
+        private final long mTimeUs;
+        private final int mWidth;
+        private final int mHeight;
+
+        Key(FrameProvider provider, long timeUs, int width, int height) {
+            mProvider = provider;
+            mTimeUs = timeUs;
+            mWidth = width;
+            mHeight = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return mProvider == other.mProvider && mTimeUs == other.mTimeUs
+                    && mWidth == other.mWidth && mHeight == other.mHeight;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(mProvider);
+            result = 31 * result + (int) (mTimeUs ^ (mTimeUs >>> 32));
+            result = 31 * result + mWidth;
+            return 31 * result + mHeight;
+        }
+    }
+}
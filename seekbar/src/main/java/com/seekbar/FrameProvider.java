@@ -0,0 +1,25 @@
+package com.seekbar;
+
+import android.graphics.Bitmap;
+
+/**
+ * Supplies the video frames shown by a {@link FilmstripLayer}, e.g. through
+ * MediaMetadataRetriever. Frames are requested on
+ * {@link SeekBarExecutor#getBackground()}, only for the slots of the strip
+ * that are shown. A frame is not requested again while it is being loaded,
+ * even by other layers sharing the {@link FrameCache}, nor while it is kept
+ * there; once it drops out, the next layout that shows it requests it again.
+ */
+public interface FrameProvider {
+
+    /**
+     * Gets the frame at the given time, scaled to fill the given size.
+     * Called on a background thread.
+     *
+     * @param timeUs the time of the frame in microseconds
+     * @param width the width of a slot in px
+     * @param height the height of a slot in px
+     * @return the frame; null if there is none
+     */
+    Bitmap loadFrame(long timeUs, int width, int height);
+}
@@ -0,0 +1,325 @@
+package com.seekbar;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Draws the distribution of a data set above the bar, one column per tick,
+ * like the histograms of common price range pickers. Columns inside the
+ * selection are drawn in the highlight color.
+ * <p>
+ * The data is binned into per-tick buckets on
+ * {@link SeekBarExecutor#getBackground()}, only when the data or the tick
+ * count changes. The column rectangles are computed once per binning or
+ * layout, so a draw, e.g. while a thumb is dragged, only picks the paint of
+ * each column.
+ * <p>
+ * For data that changes continuously, show a {@link StreamingHistogram}
+ * instead; its changes are pulled at most once per frame.
+ */
+public class HistogramLayer extends BarLayer {
+
+    public static final int DEFAULT_COLOR = 0x33000000;
+    public static final int DEFAULT_HIGHLIGHT_COLOR = 0x99000000;
+
+    // Private Constants ///////////////////////////////////////////////////////
+
+    // Share of a tick distance left empty between two columns
+    private static final float COLUMN_GAP = 0.15f;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Paint mPaint = new Paint();
+    private final Paint mHighlightPaint = new Paint();
+
+    private double[] mData;
+    private double mMin;
+    private double mMax;
+
+    // Latest binning started; results of older ones are dropped
+    private int mGeneration;
+    private int[] mCounts;
+    private int mBinnedTickCount;
+
+    // left, top, right and bottom of each column
+    private float[] mColumns = new float[0];
+    private float mMaxHeight = -1;
+
+    private StreamingHistogram mHistogram;
+    // Set by the first change after a pull; cleared when the next frame pulls
+    private final AtomicBoolean mPullScheduled = new AtomicBoolean();
+
+    // Runs on the thread that changed the histogram
+    private final Runnable mOnHistogramChanged = new Runnable() {
+        @Override
+        public void run() {
+            if (mPullScheduled.compareAndSet(false, true)) {
+                SeekBarExecutor.postToMain(mSchedulePull);
+            }
+        }
+    };
+
+    private final Runnable mSchedulePull = new Runnable() {
+        @Override
+        public void run() {
+            final BaseSeekBar owner = getOwner();
+            if (owner != null) {
+                owner.postOnNextFrame(mPull);
+            } else {
+                mPullScheduled.set(false);
+            }
+        }
+    };
+
+    private final Runnable mPull = new Runnable() {
+        @Override
+        public void run() {
+            mPullScheduled.set(false);
+            if (mHistogram != null) {
+                pullHistogram();
+                invalidate();
+            }
+        }
+    };
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    public HistogramLayer() {
+        mPaint.setColor(DEFAULT_COLOR);
+        mHighlightPaint.setColor(DEFAULT_HIGHLIGHT_COLOR);
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Sets the data to show. Each value falls into the bucket of the tick
+     * nearest to it, with min at the first and max at the last tick; values
+     * outside are not counted. The array is read on a background thread and
+     * must not be changed afterwards.
+     *
+     * @param values the data, e.g. the price of every item
+     * @param min the value at the first tick
+     * @param max the value at the last tick
+     */
+    public void setData(double[] values, double min, double max) {
+        if (!(max > min)) {
+            throw new IllegalArgumentException("max must be greater than min");
+        }
+        setHistogram(null);
+        mData = values;
+        mMin = min;
+        mMax = max;
+        rebin();
+    }
+
+    /**
+     * Shows a histogram that changes continuously instead of fixed data. The
+     * histogram is grouped by the ticks of the bar, and however often it
+     * changes, the columns are updated at most once per frame. A histogram
+     * can be shown by one layer at a time; removing the layer from its bar
+     * lets go of it.
+     *
+     * @param histogram the histogram; null to remove it
+     * @throws IllegalStateException if another layer shows the histogram
+     */
+    public void setHistogram(StreamingHistogram histogram) {
+        if (mHistogram == histogram) {
+            return;
+        }
+        if (histogram != null) {
+            // First, so that a histogram in use leaves this layer as it was.
+            histogram.setOnChangeListener(mOnHistogramChanged);
+        }
+        if (mHistogram != null) {
+            mHistogram.setOnChangeListener(null);
+        }
+        mHistogram = histogram;
+        mData = null;
+        mGeneration++;
+        mCounts = null;
+        mBinnedTickCount = 0;
+        if (histogram != null) {
+            pullHistogram();
+        }
+        invalidate();
+    }
+
+    public StreamingHistogram getHistogram() {
+        return mHistogram;
+    }
+
+    /**
+     * Removes the data and the columns.
+     */
+    public void clearData() {
+        setHistogram(null);
+        mData = null;
+        mGeneration++;
+        mCounts = null;
+        mBinnedTickCount = 0;
+        invalidate();
+    }
+
+    /**
+     * Sets the colors of the columns outside and inside the selection.
+     */
+    public void setColors(int color, int highlightColor) {
+        mPaint.setColor(color);
+        mHighlightPaint.setColor(highlightColor);
+        invalidate();
+    }
+
+    /**
+     * Sets the height of the highest column.
+     *
+     * @param maxHeight the height in px; -1 to use the space above the bar
+     */
+    public void setMaxHeight(float maxHeight) {
+        mMaxHeight = maxHeight;
+        buildColumns();
+        invalidate();
+    }
+
+    /**
+     * Gets the number of values in the bucket of a tick.
+     *
+     * @param index the 0-based index of the tick
+     * @return the count; 0 until the data is binned
+     */
+    public int getCount(int index) {
+        final int[] counts = mCounts;
+        return (counts != null && index >= 0 && index < counts.length) ? counts[index] : 0;
+    }
+
+    // BarLayer Methods ////////////////////////////////////////////////////////
+
+    @Override
+    protected void onLayout() {
+        if (mHistogram != null) {
+            pullHistogram();
+        } else if (getTickCount() != mBinnedTickCount) {
+            rebin();
+        } else {
+            buildColumns();
+        }
+    }
+
+    @Override
+    protected void draw(Canvas canvas, int leftIndex, int rightIndex, float leftX, float rightX) {
+        if (mCounts == null || mBinnedTickCount != getTickCount()) {
+            return;
+        }
+        final float[] columns = mColumns;
+        int count = 0;
+        for (int i = 0; i < mBinnedTickCount; i++) {
+            final int c = i * 4;
+            if (columns[c + 1] >= columns[c + 3]) {
+                continue;
+            }
+            canvas.drawRect(columns[c], columns[c + 1], columns[c + 2], columns[c + 3],
+                    (i >= leftIndex && i <= rightIndex) ? mHighlightPaint : mPaint);
+            count++;
+        }
+        countDrawCalls(count);
+    }
+
+    @Override
+    protected void onRemoved() {
+        mGeneration++;
+        // Stops the pulls and frees the histogram for another layer.
+        setHistogram(null);
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Copies the current counts of the histogram and rebuilds the columns.
+     */
+    private void pullHistogram() {
+        final int tickCount = getTickCount();
+        if (tickCount < 2) {
+            return;
+        }
+        mHistogram.setTickCount(tickCount);
+        if (mCounts == null || mCounts.length != tickCount) {
+            mCounts = new int[tickCount];
+        }
+        mHistogram.copyTickCounts(mCounts);
+        mBinnedTickCount = tickCount;
+        buildColumns();
+    }
+
+    private void rebin() {
+        final int generation = ++mGeneration;
+        final double[] data = mData;
+        final int tickCount = getTickCount();
+        if (data == null || tickCount < 2) {
+            return;
+        }
+        final double min = mMin;
+        final double max = mMax;
+        SeekBarExecutor.getBackground().execute(new Runnable() {
+            @Override
+            public void run() {
+                final int[] counts = bin(data, min, max, tickCount);
+                SeekBarExecutor.postToMain(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mGeneration) {
+                            return;
+                        }
+                        mCounts = counts;
+                        mBinnedTickCount = tickCount;
+                        buildColumns();
+                        invalidate();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Counts the values nearest to each of the ticks.
+     */
+    static int[] bin(double[] data, double min, double max, int tickCount) {
+        final int[] counts = new int[tickCount];
+        final double scale = (tickCount - 1) / (max - min);
+        for (double value : data) {
+            if (value >= min && value <= max) {
+                counts[(int) ((value - min) * scale + 0.5)]++;
+            }
+        }
+        return counts;
+    }
+
+    private void buildColumns() {
+        final int[] counts = mCounts;
+        if (counts == null || !isLaidOut() || counts.length != getTickCount()) {
+            return;
+        }
+        final int n = counts.length;
+        if (mColumns.length < n * 4) {
+            mColumns = new float[n * 4];
+        }
+        int maxCount = 0;
+        for (int count : counts) {
+            maxCount = Math.max(maxCount, count);
+        }
+
+        final float left = getLeft();
+        final float right = getRight();
+        final float bottom = getBarY();
+        final float maxHeight = (mMaxHeight >= 0) ? mMaxHeight : bottom - getTop();
+        final float halfWidth = (right - left) / (n - 1) * (1 - COLUMN_GAP) / 2f;
+        for (int i = 0; i < n; i++) {
+            final float x = getTickX(i);
+            final int c = i * 4;
+            mColumns[c] = Math.max(left, x - halfWidth);
+            mColumns[c + 1] = (maxCount > 0) ? bottom - maxHeight * counts[i] / maxCount : bottom;
+            mColumns[c + 2] = Math.min(right, x + halfWidth);
+            mColumns[c + 3] = bottom;
+        }
+    }
+}
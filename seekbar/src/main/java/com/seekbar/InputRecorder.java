@@ -0,0 +1,118 @@
+package com.seekbar;
+
+import android.view.MotionEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the touch events a bar receives into a compact binary trace that
+ * {@link InputReplayer} plays back against another bar. Install it with
+ * {@link BaseSeekBar#setInputRecorder(InputRecorder)}.
+ * <p>
+ * Per event the action, the times and the view-local coordinates of every
+ * pointer are kept, including the historical samples batched into move
+ * events. Times are stored as millisecond deltas so a trace does not depend
+ * on the uptime of the device it was recorded on.
+ * <p>
+ * Record with coalesced dispatch and thumb animation off. Both deliver the
+ * effect of an event a frame later, so the callbacks seen while recording
+ * would not match the ones {@link InputReplayer} reports.
+ */
+public class InputRecorder {
+
+    // Private Constants ///////////////////////////////////////////////////////
+
+    static final int MAGIC = 0x53424954; // "SBIT"
+    static final int VERSION = 1;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final ByteArrayOutputStream mBytes = new ByteArrayOutputStream();
+    private final DataOutputStream mOut = new DataOutputStream(mBytes);
+    private int mEventCount;
+    private long mLastEventTime = -1;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Appends an event to the trace. Called by the bar before it handles the
+     * event.
+     *
+     * @param event the event in the coordinates of the bar
+     */
+    public void record(MotionEvent event) {
+        final long eventTime = event.getEventTime();
+        final int pointerCount = event.getPointerCount();
+        final int historySize = event.getHistorySize();
+        try {
+            mOut.writeInt(event.getAction());
+            mOut.writeInt((mLastEventTime < 0) ? 0 : (int) (eventTime - mLastEventTime));
+            mOut.writeInt((int) (eventTime - event.getDownTime()));
+            mOut.writeByte(pointerCount);
+            for (int p = 0; p < pointerCount; p++) {
+                mOut.writeByte(event.getPointerId(p));
+            }
+            mOut.writeShort(historySize);
+            for (int h = 0; h < historySize; h++) {
+                mOut.writeInt((int) (eventTime - event.getHistoricalEventTime(h)));
+                for (int p = 0; p < pointerCount; p++) {
+                    mOut.writeFloat(event.getHistoricalX(p, h));
+                    mOut.writeFloat(event.getHistoricalY(p, h));
+                }
+            }
+            for (int p = 0; p < pointerCount; p++) {
+                mOut.writeFloat(event.getX(p));
+                mOut.writeFloat(event.getY(p));
+            }
+        } catch (IOException e) {
+            // Cannot happen when writing to memory.
+            throw new IllegalStateException(e);
+        }
+        mLastEventTime = eventTime;
+        mEventCount++;
+    }
+
+    public int getEventCount() {
+        return mEventCount;
+    }
+
+    /**
+     * Drops all recorded events.
+     */
+    public void clear() {
+        mBytes.reset();
+        mEventCount = 0;
+        mLastEventTime = -1;
+    }
+
+    /**
+     * Writes the trace with its header.
+     *
+     * @param out the stream to write to; not closed
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        final DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(mEventCount);
+        header.flush();
+        mBytes.writeTo(out);
+    }
+
+    /**
+     * Gets the trace with its header.
+     */
+    public byte[] toByteArray() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(mBytes.size() + 12);
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
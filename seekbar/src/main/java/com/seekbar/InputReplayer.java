@@ -0,0 +1,224 @@
+package com.seekbar;
+
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import com.seekbar.sliding.listener.OnRangeBarChangeListener;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Plays a trace written by {@link InputRecorder} back against a bar, one
+ * event after the other on the calling thread, and reports what the bar did:
+ * the listener callbacks in order, how often it asked to be redrawn and how
+ * long each event took to handle. Replaying the same trace against a freshly
+ * laid out bar of the same size gives the same callbacks on every build, so
+ * the result can be compared to catch behavior and latency regressions.
+ * <p>
+ * Coalesced dispatch, the listener watchdog and thumb animation are switched
+ * off while replaying: with any of them the callbacks or the thumb positions
+ * follow a frame later, which a replay on the calling thread never reaches.
+ * Record with them off too, so the recorded callbacks match the replayed
+ * ones.
+ * <p>
+ * Must run on the UI thread, or the Robolectric main looper.
+ */
+public final class InputReplayer {
+
+    private InputReplayer() {
+    }
+
+    /**
+     * Replays a trace. While replaying, the listener and metrics of the bar are
+     * replaced, coalesced dispatch, the watchdog and thumb animation are
+     * switched off, and all of them are restored afterwards.
+     *
+     * @param bar the bar to send the events to; should already be laid out in
+     *            a parent
+     * @param in the trace; not closed
+     * @return what the bar did
+     * @throws IOException if the trace cannot be read
+     */
+    public static Result replay(BaseSeekBar bar, InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input trace");
+        }
+        final int version = data.readInt();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported input trace version " + version);
+        }
+        final int eventCount = data.readInt();
+
+        final Result result = new Result(eventCount);
+        final OnRangeBarChangeListener previousListener = bar.mListener;
+        final SeekBarMetrics previousMetrics = bar.mMetrics;
+        final ListenerWatchdog previousWatchdog = bar.mListenerWatchdog;
+        final boolean previousCoalesced = bar.isCoalescedDispatch();
+        final boolean previousAnimation = bar.isThumbAnimationEnabled();
+        final SeekBarMetrics metrics = new SeekBarMetrics();
+        bar.setOnRangeBarChangeListener(new OnRangeBarChangeListener() {
+            @Override
+            public void onIndexChangeListener(BaseSeekBar rangeBar, int leftThumbIndex, int rightThumbIndex) {
+                result.addCallback(leftThumbIndex, rightThumbIndex);
+            }
+        });
+        bar.setMetrics(metrics);
+        bar.setListenerWatchdog(null);
+        bar.setCoalescedDispatch(false);
+        bar.setThumbAnimationEnabled(false);
+
+        try {
+            long eventTime = SystemClock.uptimeMillis();
+            for (int i = 0; i < eventCount; i++) {
+                final int action = data.readInt();
+                eventTime += data.readInt();
+                final long downTime = eventTime - data.readInt();
+                final MotionEvent event = readEvent(data, action, downTime, eventTime);
+
+                final long start = System.nanoTime();
+                bar.dispatchTouchEvent(event);
+                result.mEventNanos[i] = System.nanoTime() - start;
+                event.recycle();
+            }
+        } finally {
+            bar.setOnRangeBarChangeListener(previousListener);
+            bar.setMetrics(previousMetrics);
+            bar.setListenerWatchdog(previousWatchdog);
+            bar.setCoalescedDispatch(previousCoalesced);
+            bar.setThumbAnimationEnabled(previousAnimation);
+        }
+        result.mRedrawCount = metrics.snapshot().getCounter(SeekBarMetrics.COUNTER_INVALIDATES);
+        return result;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static MotionEvent readEvent(DataInputStream data, int action, long downTime, long eventTime)
+            throws IOException {
+        final int pointerCount = data.readUnsignedByte();
+        final MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            properties[p].id = data.readUnsignedByte();
+            properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+        }
+
+        // The oldest sample creates the event, the newer ones are batched on.
+        final int historySize = data.readUnsignedShort();
+        MotionEvent event = null;
+        for (int h = 0; h <= historySize; h++) {
+            final long sampleTime = (h < historySize) ? eventTime - data.readInt() : eventTime;
+            final MotionEvent.PointerCoords[] coords = readCoords(data, pointerCount);
+            if (event == null) {
+                event = MotionEvent.obtain(downTime, sampleTime, action, pointerCount, properties, coords,
+                        0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+            } else {
+                event.addBatch(sampleTime, coords, 0);
+            }
+        }
+        return event;
+    }
+
+    private static MotionEvent.PointerCoords[] readCoords(DataInputStream data, int pointerCount)
+            throws IOException {
+        final MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+        for (int p = 0; p < pointerCount; p++) {
+            coords[p] = new MotionEvent.PointerCoords();
+            coords[p].x = data.readFloat();
+            coords[p].y = data.readFloat();
+            coords[p].pressure = 1f;
+            coords[p].size = 1f;
+        }
+        return coords;
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * What a bar did while a trace was replayed.
+     */
+    public static final class Result {
+
+        private final long[] mEventNanos;
+        private int[] mCallbacks = new int[32];
+        private int mCallbackCount;
+        private long mRedrawCount;
+
+        Result(int eventCount) {
+            mEventNanos = new long[eventCount];
+        }
+
+        void addCallback(int leftThumbIndex, int rightThumbIndex) {
+            if (mCallbackCount * 2 == mCallbacks.length) {
+                mCallbacks = Arrays.copyOf(mCallbacks, mCallbacks.length * 2);
+            }
+            mCallbacks[mCallbackCount * 2] = leftThumbIndex;
+            mCallbacks[mCallbackCount * 2 + 1] = rightThumbIndex;
+            mCallbackCount++;
+        }
+
+        public int getEventCount() {
+            return mEventNanos.length;
+        }
+
+        /**
+         * Gets the time it took the bar to handle one event.
+         */
+        public long getEventNanos(int event) {
+            return mEventNanos[event];
+        }
+
+        public int getCallbackCount() {
+            return mCallbackCount;
+        }
+
+        public int getCallbackLeftIndex(int callback) {
+            return mCallbacks[callback * 2];
+        }
+
+        /**
+         * Gets the right index passed to a callback; -1 for single thumb bars.
+         */
+        public int getCallbackRightIndex(int callback) {
+            return mCallbacks[callback * 2 + 1];
+        }
+
+        /**
+         * Gets the number of times the bar invalidated itself.
+         */
+        public long getRedrawCount() {
+            return mRedrawCount;
+        }
+
+        /**
+         * Returns if the other result saw the same callbacks and redraws,
+         * ignoring timing.
+         */
+        public boolean sameBehaviorAs(Result other) {
+            return mRedrawCount == other.mRedrawCount
+                    && mCallbackCount == other.mCallbackCount
+                    && Arrays.equals(Arrays.copyOf(mCallbacks, mCallbackCount * 2),
+                            Arrays.copyOf(other.mCallbacks, other.mCallbackCount * 2));
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("InputReplayer.Result{events=");
+            sb.append(mEventNanos.length);
+            sb.append(", redraws=").append(mRedrawCount);
+            sb.append(", callbacks=[");
+            for (int i = 0; i < mCallbackCount; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(getCallbackLeftIndex(i)).append('/').append(getCallbackRightIndex(i));
+            }
+            return sb.append("]}").toString();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.seekbar;
+
+/**
+ * Supplies the label shown for a tick index. Labels are requested lazily,
+ * only for the indices that are drawn, and each one is requested once until
+ * it drops out of the bar's {@link LabelCache}.
+ */
+public interface LabelAdapter {
+
+    /**
+     * Gets the label for the given tick.
+     *
+     * @param index the 0-based tick index
+     * @return the label; null or empty for no label
+     */
+    CharSequence getLabel(int index);
+}
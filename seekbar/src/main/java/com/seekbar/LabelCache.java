@@ -0,0 +1,121 @@
+package com.seekbar;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.LruCache;
+
+/**
+ * LRU cache of measured labels keyed by tick index. A label is formatted by
+ * the {@link LabelAdapter} and measured with the given paint once; later
+ * lookups for the same index only read the cache. Changing the text size
+ * of the paint drops all measurements.
+ */
+public class LabelCache {
+
+    /**
+     * A label with its measured size.
+     */
+    public static final class Label {
+
+        public final String text;
+        // Advance width of the text.
+        public final float width;
+        // Size of the text bounds, used to center the text on a point.
+        public final int boundsWidth;
+        public final int boundsHeight;
+
+        /**
+         * Measures the text with the given paint.
+         *
+         * @param text the label text
+         * @param paint the paint the label is drawn with
+         * @param bounds scratch rect for the text bounds
+         */
+        public Label(String text, Paint paint, Rect bounds) {
+            this.text = text;
+            this.width = paint.measureText(text);
+            paint.getTextBounds(text, 0, text.length(), bounds);
+            this.boundsWidth = bounds.width();
+            this.boundsHeight = bounds.height();
+        }
+
+        private Label() {
+            this.text = "";
+            this.width = 0;
+            this.boundsWidth = 0;
+            this.boundsHeight = 0;
+        }
+    }
+
+    // Default number of measured labels kept per bar.
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    // Stands in for indices without a label so they are not requested again.
+    private static final Label NONE = new Label();
+
+    private final LruCache<Integer, Label> mCache;
+    private final Rect mBounds = new Rect();
+
+    private LabelAdapter mAdapter;
+    private float mTextSize = -1;
+
+    public LabelCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public LabelCache(int maxSize) {
+        mCache = new LruCache<Integer, Label>(maxSize);
+    }
+
+    public LabelAdapter getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * Sets the adapter the labels are requested from and drops the labels of
+     * the previous one.
+     *
+     * @param adapter the label adapter; null to remove labels
+     */
+    public void setAdapter(LabelAdapter adapter) {
+        mAdapter = adapter;
+        clear();
+    }
+
+    /**
+     * Gets the measured label for the given index, requesting and measuring
+     * it only if it is not cached.
+     *
+     * @param index the 0-based tick index
+     * @param paint the paint the label is drawn with
+     * @return the label; null if there is no adapter or no label for the index
+     */
+    public Label get(int index, Paint paint) {
+        if (mAdapter == null) {
+            return null;
+        }
+        if (paint.getTextSize() != mTextSize) {
+            mCache.evictAll();
+            mTextSize = paint.getTextSize();
+        }
+        Label label = mCache.get(index);
+        if (label == null) {
+            final CharSequence text = mAdapter.getLabel(index);
+            if (text == null || text.length() == 0) {
+                label = NONE;
+            } else {
+                label = new Label(text.toString(), paint, mBounds);
+            }
+            mCache.put(index, label);
+        }
+        return (label != NONE) ? label : null;
+    }
+
+    /**
+     * Drops all measured labels, e.g. when the data behind the adapter
+     * changed or the memory is needed.
+     */
+    public void clear() {
+        mCache.evictAll();
+    }
+}
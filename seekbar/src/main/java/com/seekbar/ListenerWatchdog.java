@@ -0,0 +1,210 @@
+package com.seekbar;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import com.seekbar.sliding.listener.OnRangeBarChangeListener;
+import com.seekbar.sliding.listener.OnRangeValueChangeListener;
+import com.seekbar.sliding.listener.OnSlowCallbackListener;
+import com.seekbar.sliding.listener.OnSlowValueCallbackListener;
+
+/**
+ * Times the index and value change callbacks of a bar and reports the ones
+ * that take longer than a budget. Install it with
+ * {@link BaseSeekBar#setListenerWatchdog(ListenerWatchdog)}.
+ * <p>
+ * When a callback is still running once the budget runs out, a watchdog
+ * thread captures the stack of the UI thread, which then points into the
+ * listener. With auto coalescing on, a bar switches to
+ * {@link BaseSeekBar#setCoalescedDispatch(boolean) coalesced dispatch} after
+ * its first slow callback, so the drag no longer waits for the listener on
+ * every move.
+ */
+public class ListenerWatchdog {
+
+    // A quarter of a 60Hz frame.
+    public static final long DEFAULT_BUDGET_MILLIS = 4;
+
+    // Private Constants ///////////////////////////////////////////////////////
+
+    private static final String TAG = "ListenerWatchdog";
+
+    private static Handler sHandler;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Handler mHandler;
+    private final long mBudgetMillis;
+    private final OnSlowCallbackListener mReporter;
+    private OnSlowValueCallbackListener mValueReporter;
+    private boolean mAutoCoalesce;
+
+    // Nesting depth of callbacks on the UI thread; only the outer one is timed.
+    private int mDepth;
+
+    // Written on the UI thread, read on the watchdog thread.
+    private volatile Thread mWatchedThread;
+    private volatile int mSequence;
+
+    // Written on the watchdog thread; the sequence tells which callback the
+    // stack belongs to.
+    private volatile StackTraceElement[] mStack;
+    private volatile int mStackSequence;
+
+    private final Runnable mCapture = new Runnable() {
+        @Override
+        public void run() {
+            final Thread thread = mWatchedThread;
+            final int sequence = mSequence;
+            if (thread == null) {
+                return;
+            }
+            mStack = thread.getStackTrace();
+            mStackSequence = sequence;
+        }
+    };
+
+    // Constructors ////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a watchdog with the default budget that logs slow callbacks.
+     */
+    public ListenerWatchdog() {
+        this(DEFAULT_BUDGET_MILLIS, null);
+    }
+
+    /**
+     * @param budgetMillis the longest a callback may take
+     * @param reporter receives the slow index change callbacks on the UI
+     *            thread; null to log them as warnings
+     */
+    public ListenerWatchdog(long budgetMillis, OnSlowCallbackListener reporter) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("budgetMillis must be positive");
+        }
+        mHandler = getHandler();
+        mBudgetMillis = budgetMillis;
+        mReporter = reporter;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public long getBudgetMillis() {
+        return mBudgetMillis;
+    }
+
+    /**
+     * Sets whether a bar switches its listener to coalesced dispatch after a
+     * slow callback.
+     */
+    public void setAutoCoalesce(boolean autoCoalesce) {
+        mAutoCoalesce = autoCoalesce;
+    }
+
+    public boolean isAutoCoalesce() {
+        return mAutoCoalesce;
+    }
+
+    /**
+     * Sets the receiver of slow value callbacks, see
+     * {@link com.seekbar.sliding.SlidingSeekBar#setViewport(long, long, long)}.
+     *
+     * @param reporter receives the slow callbacks on the UI thread; null to
+     *            log them as warnings
+     */
+    public void setValueReporter(OnSlowValueCallbackListener reporter) {
+        mValueReporter = reporter;
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Starts watching a callback about to run on the current thread.
+     */
+    void begin() {
+        if (mDepth++ > 0) {
+            return;
+        }
+        mSequence++;
+        mWatchedThread = Thread.currentThread();
+        mHandler.postDelayed(mCapture, mBudgetMillis);
+    }
+
+    /**
+     * Stops watching an index change callback and reports it if it was slow.
+     *
+     * @return true if the bar should switch to coalesced dispatch
+     */
+    boolean end(BaseSeekBar bar, OnRangeBarChangeListener listener, long durationNanos) {
+        if (!stop(durationNanos)) {
+            return false;
+        }
+        final StackTraceElement[] stack = takeStack();
+        if (mReporter != null) {
+            mReporter.onSlowCallback(bar, listener, durationNanos, stack);
+        } else {
+            log(listener.getClass().getName(), durationNanos, stack);
+        }
+        return mAutoCoalesce;
+    }
+
+    /**
+     * Stops watching a value change callback and reports it if it was slow.
+     *
+     * @return true if the bar should switch to coalesced dispatch
+     */
+    boolean end(BaseSeekBar bar, OnRangeValueChangeListener listener, long durationNanos) {
+        if (!stop(durationNanos)) {
+            return false;
+        }
+        final StackTraceElement[] stack = takeStack();
+        if (mValueReporter != null) {
+            mValueReporter.onSlowValueCallback(bar, listener, durationNanos, stack);
+        } else {
+            log(listener.getClass().getName(), durationNanos, stack);
+        }
+        return mAutoCoalesce;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Stops watching the outer callback.
+     *
+     * @return true if it was slow
+     */
+    private boolean stop(long durationNanos) {
+        if (--mDepth > 0) {
+            return false;
+        }
+        mWatchedThread = null;
+        mHandler.removeCallbacks(mCapture);
+        return durationNanos > mBudgetMillis * 1000000L;
+    }
+
+    private StackTraceElement[] takeStack() {
+        final StackTraceElement[] stack = (mStackSequence == mSequence) ? mStack : null;
+        mStack = null;
+        return stack;
+    }
+
+    private void log(String listenerName, long durationNanos, StackTraceElement[] stack) {
+        final Throwable where = new Throwable("Listener stack");
+        if (stack != null) {
+            where.setStackTrace(stack);
+        }
+        Log.w(TAG, listenerName + " took " + durationNanos / 1000000L
+                + "ms, budget is " + mBudgetMillis + "ms", (stack != null) ? where : null);
+    }
+
+    private static synchronized Handler getHandler() {
+        if (sHandler == null) {
+            final HandlerThread thread = new HandlerThread("SeekBar watchdog", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            sHandler = new Handler(thread.getLooper());
+        }
+        return sHandler;
+    }
+}
@@ -0,0 +1,143 @@
+package com.seekbar;
+
+import java.nio.ShortBuffer;
+
+/**
+ * The minimum and maximum of a long run of samples, per block of samples at
+ * several resolutions. The lowest level holds one pair per
+ * {@link #BASE_BLOCK} samples and each level above halves the number of
+ * pairs, so the extremes of any span are read from a few blocks of the level
+ * whose block size fits the span, whatever its length.
+ */
+final class MinMaxPyramid {
+
+    static final int BASE_BLOCK = 64;
+
+    // Samples read per bulk get from the buffer
+    private static final int CHUNK = 8192;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final long mSampleCount;
+    private final short[][] mMin;
+    private final short[][] mMax;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    private MinMaxPyramid(long sampleCount, short[][] min, short[][] max) {
+        mSampleCount = sampleCount;
+        mMin = min;
+        mMax = max;
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Builds the pyramid of the samples from the position to the limit of the
+     * buffer. The buffer itself is not moved.
+     *
+     * @param samples the samples, e.g. 16 bit PCM of one channel
+     */
+    static MinMaxPyramid build(ShortBuffer samples) {
+        final ShortBuffer in = samples.duplicate();
+        final long sampleCount = in.remaining();
+        final int blockCount = (int) Math.max(1, (sampleCount + BASE_BLOCK - 1) / BASE_BLOCK);
+
+        int levels = 1;
+        for (int n = blockCount; n > 1; n = (n + 1) / 2) {
+            levels++;
+        }
+        final short[][] min = new short[levels][];
+        final short[][] max = new short[levels][];
+        min[0] = new short[blockCount];
+        max[0] = new short[blockCount];
+
+        final short[] chunk = new short[CHUNK];
+        short lo = Short.MAX_VALUE;
+        short hi = Short.MIN_VALUE;
+        long read = 0;
+        while (in.hasRemaining()) {
+            final int length = Math.min(CHUNK, in.remaining());
+            in.get(chunk, 0, length);
+            for (int i = 0; i < length; i++) {
+                final short sample = chunk[i];
+                if (sample < lo) {
+                    lo = sample;
+                }
+                if (sample > hi) {
+                    hi = sample;
+                }
+                if (++read % BASE_BLOCK == 0) {
+                    final int block = (int) (read / BASE_BLOCK) - 1;
+                    min[0][block] = lo;
+                    max[0][block] = hi;
+                    lo = Short.MAX_VALUE;
+                    hi = Short.MIN_VALUE;
+                }
+            }
+        }
+        if (read % BASE_BLOCK != 0) {
+            min[0][blockCount - 1] = lo;
+            max[0][blockCount - 1] = hi;
+        }
+
+        for (int level = 1; level < levels; level++) {
+            final short[] belowMin = min[level - 1];
+            final short[] belowMax = max[level - 1];
+            final int n = (belowMin.length + 1) / 2;
+            min[level] = new short[n];
+            max[level] = new short[n];
+            for (int i = 0; i < n; i++) {
+                final int a = i * 2;
+                final int b = Math.min(a + 1, belowMin.length - 1);
+                min[level][i] = (short) Math.min(belowMin[a], belowMin[b]);
+                max[level][i] = (short) Math.max(belowMax[a], belowMax[b]);
+            }
+        }
+        return new MinMaxPyramid(sampleCount, min, max);
+    }
+
+    long getSampleCount() {
+        return mSampleCount;
+    }
+
+    /**
+     * Gets the extremes of the samples from start to end, rounded out to the
+     * blocks of the coarsest level whose blocks are not longer than the span.
+     *
+     * @param start index of the first sample
+     * @param end index after the last sample
+     * @param out receives the minimum at 0 and the maximum at 1
+     * @return false if the span holds no samples
+     */
+    boolean range(long start, long end, short[] out) {
+        start = Math.max(start, 0);
+        end = Math.min(end, mSampleCount);
+        if (start >= end) {
+            return false;
+        }
+        final long span = end - start;
+        int level = 0;
+        while (level + 1 < mMin.length && ((long) BASE_BLOCK << (level + 1)) <= span) {
+            level++;
+        }
+        final long blockSize = (long) BASE_BLOCK << level;
+        final short[] min = mMin[level];
+        final short[] max = mMax[level];
+        final int first = (int) (start / blockSize);
+        final int last = (int) Math.min((end - 1) / blockSize, min.length - 1);
+        short lo = Short.MAX_VALUE;
+        short hi = Short.MIN_VALUE;
+        for (int i = first; i <= last; i++) {
+            if (min[i] < lo) {
+                lo = min[i];
+            }
+            if (max[i] > hi) {
+                hi = max[i];
+            }
+        }
+        out[0] = lo;
+        out[1] = hi;
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+package com.seekbar;
+
+/**
+ * Counts the items inside any range of ticks with two array reads, e.g. for a
+ * "N results" badge updated from
+ * {@link com.seekbar.sliding.listener.OnRangeBarChangeListener} while a thumb
+ * is dragged. It holds the prefix sums of the number of items per tick.
+ * <p>
+ * The index may be built on any thread; a new build replaces the sums at
+ * once, so counting never sees a half built index. Attach it to a bar with
+ * {@link BaseSeekBar#setRangeCountIndex(RangeCountIndex)}.
+ */
+public final class RangeCountIndex {
+
+    private static final long[] EMPTY = new long[] {0};
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // mPrefix[i] is the number of items at the ticks before tick i
+    private volatile long[] mPrefix = EMPTY;
+
+    // Latest build started; results of older background builds are dropped
+    private int mGeneration;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Builds the index on the calling thread.
+     *
+     * @param counts the number of items at each tick
+     */
+    public void build(int[] counts) {
+        final long[] prefix = prefixSums(counts);
+        synchronized (this) {
+            mGeneration++;
+            mPrefix = prefix;
+        }
+    }
+
+    /**
+     * Builds the index on {@link SeekBarExecutor#getBackground()} from the
+     * values of the items. Each value counts at the tick nearest to it, the
+     * same way {@link HistogramLayer} bins its data. The array must not be
+     * changed afterwards.
+     *
+     * @param values the value of every item
+     * @param min the value at the first tick
+     * @param max the value at the last tick
+     * @param tickCount the number of ticks of the bar
+     * @param onBuilt run on the UI thread once the index is replaced; may be
+     *            null
+     */
+    public void buildInBackground(final double[] values, final double min, final double max,
+                                  final int tickCount, final Runnable onBuilt) {
+        if (!(max > min)) {
+            throw new IllegalArgumentException("max must be greater than min");
+        }
+        if (tickCount < 2) {
+            throw new IllegalArgumentException("tickCount must be at least 2");
+        }
+        final int generation;
+        synchronized (this) {
+            generation = ++mGeneration;
+        }
+        SeekBarExecutor.getBackground().execute(new Runnable() {
+            @Override
+            public void run() {
+                final long[] prefix = prefixSums(HistogramLayer.bin(values, min, max, tickCount));
+                synchronized (RangeCountIndex.this) {
+                    if (generation != mGeneration) {
+                        return;
+                    }
+                    mPrefix = prefix;
+                }
+                if (onBuilt != null) {
+                    SeekBarExecutor.postToMain(onBuilt);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the number of items at the ticks from leftIndex to rightIndex,
+     * both included. Indices beyond the ticks are limited to them.
+     *
+     * @return the count; 0 if the range is empty or the index not built
+     */
+    public long count(int leftIndex, int rightIndex) {
+        final long[] prefix = mPrefix;
+        final int left = Math.max(leftIndex, 0);
+        final int right = Math.min(rightIndex, prefix.length - 2);
+        return (left <= right) ? prefix[right + 1] - prefix[left] : 0;
+    }
+
+    /**
+     * Gets the number of items at all ticks.
+     */
+    public long getTotal() {
+        final long[] prefix = mPrefix;
+        return prefix[prefix.length - 1];
+    }
+
+    /**
+     * Gets the number of ticks of the latest build.
+     */
+    public int getTickCount() {
+        return mPrefix.length - 1;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static long[] prefixSums(int[] counts) {
+        final long[] prefix = new long[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            prefix[i + 1] = prefix[i] + counts[i];
+        }
+        return prefix;
+    }
+}
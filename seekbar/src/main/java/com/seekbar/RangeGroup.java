@@ -0,0 +1,144 @@
+package com.seekbar;
+
+import com.seekbar.sliding.listener.OnRangeGroupChangeListener;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps several bars on one shared range. A change made on any member, by a
+ * drag or by setThumbIndices, updates the range once and moves the thumbs of
+ * the other members without rebuilding them, requesting layout or calling
+ * their listeners. The other members are only invalidated, so all of them are
+ * redrawn in the same next frame. Single thumb bars follow the left index.
+ * <p>
+ * All members should have the same tick count; indices are clamped to each
+ * member's ticks. The group holds its members strongly, so remove bars that
+ * leave the screen. Like the bars themselves, it must only be used on the UI
+ * thread.
+ */
+public class RangeGroup {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final ArrayList<BaseSeekBar> mMembers = new ArrayList<BaseSeekBar>();
+    private OnRangeGroupChangeListener mListener;
+
+    private int mLeftIndex;
+    private int mRightIndex;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * @param leftIndex the initial left index
+     * @param rightIndex the initial right index
+     */
+    public RangeGroup(int leftIndex, int rightIndex) {
+        mLeftIndex = leftIndex;
+        mRightIndex = rightIndex;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Adds a bar to the group and moves its thumbs to the shared range. A bar
+     * can only be in one group.
+     *
+     * @param bar the bar to add
+     * @throws IllegalArgumentException if the bar's thumbs cannot be moved by
+     *             index, e.g. a SlidingSeekBar in viewport mode
+     */
+    public void add(BaseSeekBar bar) {
+        if (bar.mRangeGroup == this) {
+            return;
+        }
+        if (!bar.canApplyIndices()) {
+            throw new IllegalArgumentException(bar.getClass().getName() + " cannot be moved by index");
+        }
+        if (bar.mRangeGroup != null) {
+            bar.mRangeGroup.remove(bar);
+        }
+        bar.mRangeGroup = this;
+        mMembers.add(bar);
+        bar.applyIndices(mLeftIndex, mRightIndex, false);
+        bar.invalidate();
+    }
+
+    /**
+     * Removes a bar from the group. Its thumbs stay where they are.
+     *
+     * @param bar the bar to remove
+     */
+    public void remove(BaseSeekBar bar) {
+        if (bar.mRangeGroup != this) {
+            return;
+        }
+        bar.mRangeGroup = null;
+        mMembers.remove(bar);
+    }
+
+    public int getMemberCount() {
+        return mMembers.size();
+    }
+
+    /**
+     * Sets a listener that is called once for every change of the range.
+     *
+     * @param listener the listener; null to remove it
+     */
+    public void setOnRangeGroupChangeListener(OnRangeGroupChangeListener listener) {
+        mListener = listener;
+    }
+
+    public int getLeftIndex() {
+        return mLeftIndex;
+    }
+
+    public int getRightIndex() {
+        return mRightIndex;
+    }
+
+    /**
+     * Moves the thumbs of all members to a new range.
+     *
+     * @param leftIndex the new left index
+     * @param rightIndex the new right index
+     */
+    public void setRange(int leftIndex, int rightIndex) {
+        update(null, leftIndex, rightIndex);
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Called by a member whose indices changed.
+     *
+     * @param rightIndex the new right index; -1 for single thumb bars, which
+     *            leave the right index as it is
+     */
+    void onMemberChanged(BaseSeekBar source, int leftIndex, int rightIndex) {
+        update(source, leftIndex, (rightIndex < 0) ? mRightIndex : rightIndex);
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void update(BaseSeekBar source, int leftIndex, int rightIndex) {
+        if (leftIndex == mLeftIndex && rightIndex == mRightIndex) {
+            return;
+        }
+        mLeftIndex = leftIndex;
+        mRightIndex = rightIndex;
+
+        for (int i = 0; i < mMembers.size(); i++) {
+            final BaseSeekBar member = mMembers.get(i);
+            if (member == source) {
+                continue;
+            }
+            member.applyIndices(leftIndex, rightIndex, false);
+            member.invalidate();
+        }
+
+        if (mListener != null) {
+            mListener.onRangeChanged(this, source, leftIndex, rightIndex);
+        }
+    }
+}
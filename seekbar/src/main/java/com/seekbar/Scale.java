@@ -0,0 +1,117 @@
+package com.seekbar;
+
+/**
+ * Maps a position along the bar, as a fraction from 0 at the left end to 1 at
+ * the right end, to a value. The ticks stay evenly spaced, so with a
+ * non-linear scale they stand for unevenly spaced values, e.g. prices from 1
+ * to 100,000 on a logarithmic scale.
+ * <p>
+ * A bar samples its scale into a lookup table when its size changes, see
+ * {@link BaseSeekBar#setScale(Scale)}, so {@link #valueAt(double)} may be
+ * arbitrarily slow. Subclass it for a scale given by any function; the
+ * function must increase with the fraction.
+ */
+public abstract class Scale {
+
+    /**
+     * Gets the value at a position along the bar.
+     *
+     * @param fraction the position, from 0 to 1
+     * @return the value; increasing with the fraction
+     */
+    public abstract double valueAt(double fraction);
+
+    // Factory Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Creates a scale on which equal distances are equal differences.
+     */
+    public static Scale linear(final double min, final double max) {
+        checkRange(min, max);
+        return new Scale() {
+            @Override
+            public double valueAt(double fraction) {
+                return min + (max - min) * fraction;
+            }
+        };
+    }
+
+    /**
+     * Creates a scale on which equal distances are equal ratios.
+     *
+     * @param min the value at the left end; must be positive
+     * @param max the value at the right end
+     */
+    public static Scale log(double min, double max) {
+        checkRange(min, max);
+        if (min <= 0) {
+            throw new IllegalArgumentException("min must be positive on a logarithmic scale");
+        }
+        final double logMin = Math.log(min);
+        final double logRange = Math.log(max) - logMin;
+        return new Scale() {
+            @Override
+            public double valueAt(double fraction) {
+                return Math.exp(logMin + logRange * fraction);
+            }
+        };
+    }
+
+    /**
+     * Creates a scale that grows with the given power of the distance; above
+     * 1 the left part of the bar gets finer, below 1 the right part.
+     *
+     * @param exponent the power; must be positive
+     */
+    public static Scale power(final double min, final double max, final double exponent) {
+        checkRange(min, max);
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("exponent must be positive");
+        }
+        return new Scale() {
+            @Override
+            public double valueAt(double fraction) {
+                return min + (max - min) * Math.pow(fraction, exponent);
+            }
+        };
+    }
+
+    /**
+     * Creates a scale that is linear between the given points.
+     *
+     * @param fractions the positions of the points, increasing from 0 to 1
+     * @param values the values at the points, increasing
+     */
+    public static Scale piecewiseLinear(double[] fractions, double[] values) {
+        if (fractions.length < 2 || fractions.length != values.length) {
+            throw new IllegalArgumentException("Need at least two points with a value each");
+        }
+        if (fractions[0] != 0 || fractions[fractions.length - 1] != 1) {
+            throw new IllegalArgumentException("The points must start at 0 and end at 1");
+        }
+        for (int i = 1; i < fractions.length; i++) {
+            if (fractions[i] <= fractions[i - 1] || values[i] < values[i - 1]) {
+                throw new IllegalArgumentException("The points must be increasing");
+            }
+        }
+        final double[] xs = fractions.clone();
+        final double[] ys = values.clone();
+        return new Scale() {
+            @Override
+            public double valueAt(double fraction) {
+                int i = 1;
+                while (i < xs.length - 1 && fraction > xs[i]) {
+                    i++;
+                }
+                final double t = (fraction - xs[i - 1]) / (xs[i] - xs[i - 1]);
+                return ys[i - 1] + (ys[i] - ys[i - 1]) * t;
+            }
+        };
+    }
+
+    private static void checkRange(double min, double max) {
+        if (!(max > min)) {
+            throw new IllegalArgumentException("max must be greater than min");
+        }
+    }
+}
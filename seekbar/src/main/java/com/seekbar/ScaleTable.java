@@ -0,0 +1,96 @@
+package com.seekbar;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Scale} sampled once per pixel of the bar, so that converting
+ * between an x-coordinate and a value costs a table lookup and a linear
+ * interpolation instead of a call into the scale. Rebuilt when the bar
+ * changes size; the table is reused if it is large enough.
+ */
+final class ScaleTable {
+
+    // Enough for the widest screens; wider bars are sampled more coarsely.
+    private static final int MAX_SAMPLES = 4096;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private double[] mValues = new double[0];
+    private int mSize;
+    private float mLeftX;
+    private float mLength;
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Samples the scale across the bar.
+     *
+     * @param scale the scale to sample
+     * @param leftX x-coordinate of the left end of the bar
+     * @param length length of the bar in px
+     */
+    void build(Scale scale, float leftX, float length) {
+        mLeftX = leftX;
+        mLength = length;
+        mSize = Math.max(2, Math.min((int) Math.ceil(length) + 1, MAX_SAMPLES));
+        if (mValues.length < mSize) {
+            mValues = new double[mSize];
+        }
+        final int last = mSize - 1;
+        for (int i = 0; i < mSize; i++) {
+            mValues[i] = scale.valueAt(i / (double) last);
+        }
+    }
+
+    void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Gets the value at a position along the bar.
+     *
+     * @param fraction the position, from 0 to 1
+     */
+    double valueAtFraction(double fraction) {
+        final double position = Math.max(0, Math.min(fraction, 1)) * (mSize - 1);
+        final int i = Math.min((int) position, mSize - 2);
+        return mValues[i] + (mValues[i + 1] - mValues[i]) * (position - i);
+    }
+
+    /**
+     * Gets the value at an x-coordinate, limited to the ends of the bar.
+     */
+    double valueAtX(float x) {
+        return valueAtFraction((mLength > 0) ? (x - mLeftX) / mLength : 0);
+    }
+
+    /**
+     * Gets the position of a value along the bar, from 0 to 1.
+     */
+    double fractionOf(double value) {
+        final int last = mSize - 1;
+        if (value <= mValues[0]) {
+            return 0;
+        }
+        if (value >= mValues[last]) {
+            return 1;
+        }
+        // The table increases, so the samples around the value are found by
+        // binary search.
+        int i = Arrays.binarySearch(mValues, 0, mSize, value);
+        if (i >= 0) {
+            return i / (double) last;
+        }
+        i = -i - 2;
+        final double span = mValues[i + 1] - mValues[i];
+        final double t = (span > 0) ? (value - mValues[i]) / span : 0;
+        return (i + t) / last;
+    }
+
+    /**
+     * Gets the x-coordinate of a value, limited to the ends of the bar.
+     */
+    float xOf(double value) {
+        return mLeftX + (float) (fractionOf(value) * mLength);
+    }
+}
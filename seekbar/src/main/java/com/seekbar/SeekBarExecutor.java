@@ -0,0 +1,105 @@
+package com.seekbar;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background and main thread executors shared by all bars of the process.
+ * Work that must not run on the UI thread, such as decoding thumb images, is
+ * handed to {@link #getBackground()} and its result posted back with
+ * {@link #postToMain(Runnable)}.
+ */
+public final class SeekBarExecutor {
+
+    private static final int POOL_SIZE = 2;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private static volatile Executor sBackground;
+
+    private SeekBarExecutor() {
+    }
+
+    /**
+     * Gets the executor used for background work. Unless one was set with
+     * {@link #setBackground(Executor)}, a small pool of low priority threads
+     * is created on first use; its threads exit when idle.
+     *
+     * @return the background executor
+     */
+    public static Executor getBackground() {
+        Executor executor = sBackground;
+        if (executor == null) {
+            synchronized (SeekBarExecutor.class) {
+                executor = sBackground;
+                if (executor == null) {
+                    executor = createDefault();
+                    sBackground = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Replaces the background executor, e.g. to share the app's own pool.
+     *
+     * @param executor the executor to use; null to restore the default
+     */
+    public static void setBackground(Executor executor) {
+        sBackground = executor;
+    }
+
+    /**
+     * Runs the given task on the main thread. Unlike View#post this also works
+     * for views that are not attached to a window.
+     *
+     * @param task the task to run
+     */
+    public static void postToMain(Runnable task) {
+        sMainHandler.post(task);
+    }
+
+    /**
+     * Removes a task posted with {@link #postToMain(Runnable)} that has not
+     * run yet.
+     *
+     * @param task the task to remove
+     */
+    public static void removeFromMain(Runnable task) {
+        sMainHandler.removeCallbacks(task);
+    }
+
+    private static Executor createDefault() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                r.run();
+                            }
+                        }, "SeekBar #" + mCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,181 @@
+package com.seekbar;
+
+import java.util.Arrays;
+
+/**
+ * Per-bar counters and latency histograms. Install one with
+ * {@link BaseSeekBar#setMetrics(SeekBarMetrics)}; without one the bar only
+ * pays a null check at each measuring point.
+ * <p>
+ * All storage is allocated up front in primitive arrays, so recording never
+ * allocates. Latencies go into power of two buckets of microseconds. Like the
+ * bar itself, recording and {@link #snapshot()} must happen on the UI thread.
+ */
+public class SeekBarMetrics {
+
+    // Counters
+    public static final int COUNTER_TOUCH_EVENTS = 0;
+    public static final int COUNTER_INVALIDATES = 1;
+    public static final int COUNTER_BAR_REBUILDS = 2;
+    public static final int COUNTER_THUMB_REBUILDS = 3;
+    public static final int COUNTER_COUNT = 4;
+
+    // Histograms
+    public static final int HISTOGRAM_DRAW = 0;
+    public static final int HISTOGRAM_TOUCH_TO_INVALIDATE = 1;
+    public static final int HISTOGRAM_LISTENER = 2;
+    public static final int HISTOGRAM_BITMAP_DECODE = 3;
+    public static final int HISTOGRAM_COUNT = 4;
+
+    // Bucket 0 holds latencies under 1us, bucket b those in [2^(b-1), 2^b) us;
+    // the last bucket holds everything from about 1s up.
+    public static final int BUCKET_COUNT = 22;
+
+    private final long[] mCounters = new long[COUNTER_COUNT];
+    private final long[] mBuckets = new long[HISTOGRAM_COUNT * BUCKET_COUNT];
+    private final long[] mSumNanos = new long[HISTOGRAM_COUNT];
+    private final long[] mMaxNanos = new long[HISTOGRAM_COUNT];
+
+    /**
+     * Adds one to the given counter.
+     *
+     * @param counter one of the COUNTER_ constants
+     */
+    public void increment(int counter) {
+        mCounters[counter]++;
+    }
+
+    /**
+     * Records a latency in the given histogram.
+     *
+     * @param histogram one of the HISTOGRAM_ constants
+     * @param durationNanos the latency in nanoseconds
+     */
+    public void record(int histogram, long durationNanos) {
+        mBuckets[histogram * BUCKET_COUNT + bucketOf(durationNanos)]++;
+        mSumNanos[histogram] += durationNanos;
+        if (durationNanos > mMaxNanos[histogram]) {
+            mMaxNanos[histogram] = durationNanos;
+        }
+    }
+
+    /**
+     * Copies the current values for export.
+     *
+     * @return an immutable copy of the counters and histograms
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(mCounters.clone(), mBuckets.clone(), mSumNanos.clone(), mMaxNanos.clone());
+    }
+
+    /**
+     * Sets all counters and histograms back to zero.
+     */
+    public void reset() {
+        Arrays.fill(mCounters, 0);
+        Arrays.fill(mBuckets, 0);
+        Arrays.fill(mSumNanos, 0);
+        Arrays.fill(mMaxNanos, 0);
+    }
+
+    static int bucketOf(long durationNanos) {
+        final long micros = durationNanos / 1000;
+        final int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Values of a {@link SeekBarMetrics} at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final long[] mCounters;
+        private final long[] mBuckets;
+        private final long[] mSumNanos;
+        private final long[] mMaxNanos;
+
+        Snapshot(long[] counters, long[] buckets, long[] sumNanos, long[] maxNanos) {
+            mCounters = counters;
+            mBuckets = buckets;
+            mSumNanos = sumNanos;
+            mMaxNanos = maxNanos;
+        }
+
+        public long getCounter(int counter) {
+            return mCounters[counter];
+        }
+
+        /**
+         * Gets the number of latencies recorded in the given histogram.
+         */
+        public long getCount(int histogram) {
+            long count = 0;
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                count += mBuckets[histogram * BUCKET_COUNT + b];
+            }
+            return count;
+        }
+
+        /**
+         * Gets the number of latencies in one bucket of the given histogram.
+         */
+        public long getBucketCount(int histogram, int bucket) {
+            return mBuckets[histogram * BUCKET_COUNT + bucket];
+        }
+
+        public long getMaxNanos(int histogram) {
+            return mMaxNanos[histogram];
+        }
+
+        public long getMeanNanos(int histogram) {
+            final long count = getCount(histogram);
+            return (count == 0) ? 0 : mSumNanos[histogram] / count;
+        }
+
+        /**
+         * Gets an upper bound of the given percentile, accurate to the bucket
+         * the percentile falls in.
+         *
+         * @param histogram one of the HISTOGRAM_ constants
+         * @param percentile the percentile, between 0 and 100
+         * @return the upper bound of the bucket in nanoseconds; 0 if empty
+         */
+        public long getPercentileNanos(int histogram, double percentile) {
+            final long count = getCount(histogram);
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = (long) Math.ceil(count * percentile / 100d);
+            long seen = 0;
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                seen += mBuckets[histogram * BUCKET_COUNT + b];
+                if (seen >= Math.max(1, rank)) {
+                    return (b == BUCKET_COUNT - 1) ? mMaxNanos[histogram] : (1L << b) * 1000;
+                }
+            }
+            return mMaxNanos[histogram];
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("SeekBarMetrics{");
+            sb.append("touchEvents=").append(mCounters[COUNTER_TOUCH_EVENTS]);
+            sb.append(", invalidates=").append(mCounters[COUNTER_INVALIDATES]);
+            sb.append(", barRebuilds=").append(mCounters[COUNTER_BAR_REBUILDS]);
+            sb.append(", thumbRebuilds=").append(mCounters[COUNTER_THUMB_REBUILDS]);
+            appendHistogram(sb, "draw", HISTOGRAM_DRAW);
+            appendHistogram(sb, "touchToInvalidate", HISTOGRAM_TOUCH_TO_INVALIDATE);
+            appendHistogram(sb, "listener", HISTOGRAM_LISTENER);
+            appendHistogram(sb, "bitmapDecode", HISTOGRAM_BITMAP_DECODE);
+            return sb.append('}').toString();
+        }
+
+        private void appendHistogram(StringBuilder sb, String name, int histogram) {
+            sb.append(", ").append(name).append("={count=").append(getCount(histogram));
+            sb.append(", meanUs=").append(getMeanNanos(histogram) / 1000);
+            sb.append(", p90Us=").append(getPercentileNanos(histogram, 90) / 1000);
+            sb.append(", maxUs=").append(getMaxNanos(histogram) / 1000);
+            sb.append('}');
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.seekbar;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Trace sections around the drawing, layout, touch and listener paths of the
+ * seek bars. Sections are off by default and cost a single static read then.
+ * <p>
+ * When enabled, sections show up in systrace/Perfetto captures through
+ * {@link Trace} (API 18+). A {@link TraceEventRecorder} can be installed as
+ * well to collect the same spans on the JVM, e.g. in Robolectric tests, and
+ * write them out as a Chrome trace-event file.
+ * <p>
+ * Toggle tracing on the UI thread and not from inside a listener callback, so
+ * every begun section is also ended.
+ */
+public final class SeekBarTrace {
+
+    // Section Names ///////////////////////////////////////////////////////////
+
+    public static final String SECTION_DRAW = "SeekBar#onDraw";
+    public static final String SECTION_TOUCH = "SeekBar#onTouchEvent";
+    public static final String SECTION_SIZE_CHANGED = "SeekBar#onSizeChanged";
+    public static final String SECTION_CREATE_THUMBS = "SeekBar#createThumbs";
+    public static final String SECTION_CREATE_BAR = "SeekBar#createBar";
+    public static final String SECTION_DISPATCH = "SeekBar#dispatchIndexChange";
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private static volatile boolean sEnabled;
+    private static volatile TraceEventRecorder sRecorder;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    private SeekBarTrace() {
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Sets a recorder that receives every section while tracing is enabled.
+     *
+     * @param recorder the recorder; null to only use {@link Trace}
+     */
+    public static void setRecorder(TraceEventRecorder recorder) {
+        sRecorder = recorder;
+    }
+
+    public static TraceEventRecorder getRecorder() {
+        return sRecorder;
+    }
+
+    /**
+     * Begins a section on the current thread if tracing is enabled. Must be
+     * matched by {@link #endSection()} on the same thread.
+     *
+     * @param name one of the SECTION_ constants
+     */
+    public static void beginSection(String name) {
+        if (!sEnabled) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(name);
+        }
+        final TraceEventRecorder recorder = sRecorder;
+        if (recorder != null) {
+            recorder.begin(name);
+        }
+    }
+
+    /**
+     * Ends the section last begun on the current thread.
+     */
+    public static void endSection() {
+        if (!sEnabled) {
+            return;
+        }
+        final TraceEventRecorder recorder = sRecorder;
+        if (recorder != null) {
+            recorder.end();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.seekbar;
+
+import java.util.Arrays;
+
+/**
+ * A distribution of values that changes continuously, e.g. the prices of a
+ * live inventory. Values are added and removed in batches from any thread and
+ * the counts are updated in place, without ever scanning the whole data set.
+ * Show it with {@link HistogramLayer#setHistogram(StreamingHistogram)}; it is
+ * grouped by the ticks of that layer's bar, so only one layer may show it at
+ * a time.
+ * <p>
+ * Values are counted in fine bins across [min, max], and each fine bin is
+ * mapped to the tick nearest to its center. Changing the tick count of the
+ * bar only regroups the fine bins; the resolution bounds how precisely values
+ * near the middle between two ticks are attributed.
+ */
+public final class StreamingHistogram {
+
+    public static final int DEFAULT_RESOLUTION = 4096;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Object mLock = new Object();
+
+    private final double mMin;
+    private final double mMax;
+    private final double mBinScale;
+    private final int[] mFineCounts;
+
+    // Guarded by mLock
+    private int mTickCount;
+    private int[] mFineToTick;
+    private int[] mTickCounts;
+    private long mTotal;
+
+    // Told after every batch, on the thread that made the change. Set under
+    // mLock.
+    private volatile Runnable mOnChange;
+
+    // Constructors ////////////////////////////////////////////////////////////
+
+    public StreamingHistogram(double min, double max) {
+        this(min, max, DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param min the value at the first tick
+     * @param max the value at the last tick
+     * @param resolution the number of fine bins between min and max
+     */
+    public StreamingHistogram(double min, double max, int resolution) {
+        if (!(max > min)) {
+            throw new IllegalArgumentException("max must be greater than min");
+        }
+        if (resolution < 1) {
+            throw new IllegalArgumentException("resolution must be positive");
+        }
+        mMin = min;
+        mMax = max;
+        mBinScale = resolution / (max - min);
+        mFineCounts = new int[resolution];
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public void add(double value) {
+        synchronized (mLock) {
+            update(value, 1);
+        }
+        notifyChanged();
+    }
+
+    public void remove(double value) {
+        synchronized (mLock) {
+            update(value, -1);
+        }
+        notifyChanged();
+    }
+
+    /**
+     * Adds a batch of values. Values outside [min, max] are ignored.
+     *
+     * @param values the array holding the values
+     * @param offset index of the first value in the array
+     * @param count number of values
+     */
+    public void addAll(double[] values, int offset, int count) {
+        synchronized (mLock) {
+            for (int i = offset, end = offset + count; i < end; i++) {
+                update(values[i], 1);
+            }
+        }
+        notifyChanged();
+    }
+
+    /**
+     * Removes a batch of values added before. Values that are not counted are
+     * ignored.
+     *
+     * @param values the array holding the values
+     * @param offset index of the first value in the array
+     * @param count number of values
+     */
+    public void removeAll(double[] values, int offset, int count) {
+        synchronized (mLock) {
+            for (int i = offset, end = offset + count; i < end; i++) {
+                update(values[i], -1);
+            }
+        }
+        notifyChanged();
+    }
+
+    public void clear() {
+        synchronized (mLock) {
+            Arrays.fill(mFineCounts, 0);
+            if (mTickCounts != null) {
+                Arrays.fill(mTickCounts, 0);
+            }
+            mTotal = 0;
+        }
+        notifyChanged();
+    }
+
+    /**
+     * Gets the number of values counted.
+     */
+    public long getTotal() {
+        synchronized (mLock) {
+            return mTotal;
+        }
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Sets the one listener told about changes.
+     *
+     * @param onChange the listener; null to remove it
+     * @throws IllegalStateException if another listener is set
+     */
+    void setOnChangeListener(Runnable onChange) {
+        synchronized (mLock) {
+            if (onChange != null && mOnChange != null && mOnChange != onChange) {
+                throw new IllegalStateException("The histogram is already shown by another layer");
+            }
+            mOnChange = onChange;
+        }
+    }
+
+    /**
+     * Groups the fine bins by the ticks of a bar.
+     *
+     * @param tickCount the number of ticks
+     */
+    void setTickCount(int tickCount) {
+        synchronized (mLock) {
+            if (tickCount == mTickCount) {
+                return;
+            }
+            mTickCount = tickCount;
+            final int resolution = mFineCounts.length;
+            if (mFineToTick == null) {
+                mFineToTick = new int[resolution];
+            }
+            mTickCounts = new int[tickCount];
+            for (int fine = 0; fine < resolution; fine++) {
+                final int tick = (int) ((fine + 0.5) / resolution * (tickCount - 1) + 0.5);
+                mFineToTick[fine] = tick;
+                mTickCounts[tick] += mFineCounts[fine];
+            }
+        }
+    }
+
+    /**
+     * Copies the counts per tick.
+     *
+     * @param into the array to copy to, one entry per tick
+     */
+    void copyTickCounts(int[] into) {
+        synchronized (mLock) {
+            if (mTickCounts == null || into.length != mTickCounts.length) {
+                Arrays.fill(into, 0);
+                return;
+            }
+            System.arraycopy(mTickCounts, 0, into, 0, into.length);
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void update(double value, int delta) {
+        if (!(value >= mMin && value <= mMax)) {
+            return;
+        }
+        final int fine = Math.min((int) ((value - mMin) * mBinScale), mFineCounts.length - 1);
+        if (delta < 0 && mFineCounts[fine] == 0) {
+            return;
+        }
+        mFineCounts[fine] += delta;
+        mTotal += delta;
+        if (mTickCounts != null) {
+            mTickCounts[mFineToTick[fine]] += delta;
+        }
+    }
+
+    private void notifyChanged() {
+        final Runnable onChange = mOnChange;
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+}
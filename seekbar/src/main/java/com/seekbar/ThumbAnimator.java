@@ -0,0 +1,269 @@
+package com.seekbar;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * Animates the x-positions of the thumbs of one bar, driven by frame
+ * callbacks of the {@link Choreographer} (a frame's delay before API 16).
+ * <p>
+ * Each thumb has a fixed channel, so starting a move allocates nothing.
+ * Moving a thumb that is already animating retargets it from where it is, so
+ * overlapping moves coalesce into one. While paused, e.g. when the bar is not
+ * shown, no frames are requested and the moves continue where they stopped
+ * once resumed.
+ */
+final class ThumbAnimator {
+
+    static final long DEFAULT_DURATION_MILLIS = 150;
+
+    // Private Constants ///////////////////////////////////////////////////////
+
+    // Enough for the two thumbs of a range bar.
+    private static final int CHANNELS = 2;
+
+    private static final long FRAME_DELAY_MILLIS = 16;
+    private static final long FRAME_NANOS = 16666667L;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final View mView;
+
+    private final BaseThumb[] mThumbs = new BaseThumb[CHANNELS];
+    private final float[] mFromX = new float[CHANNELS];
+    private final float[] mToX = new float[CHANNELS];
+    private final long[] mElapsedNanos = new long[CHANNELS];
+
+    private long mDurationNanos = DEFAULT_DURATION_MILLIS * 1000000L;
+    private boolean mPaused;
+    private boolean mFrameRequested;
+    // Time of the last frame; 0 until the first frame after starting or resuming
+    private long mLastFrameNanos;
+
+    // A Choreographer.FrameCallback on API 16+, kept as an Object so the class
+    // still loads on older versions.
+    private Object mFrameCallback;
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            doFrame(System.nanoTime());
+        }
+    };
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * @param view the view redrawn on every frame of a move
+     */
+    ThumbAnimator(View view) {
+        mView = view;
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    void setDuration(long durationMillis) {
+        mDurationNanos = Math.max(0, durationMillis) * 1000000L;
+    }
+
+    long getDuration() {
+        return mDurationNanos / 1000000L;
+    }
+
+    /**
+     * Moves the thumb from its current position to the given one. A move
+     * already running for the thumb is replaced.
+     *
+     * @param thumb the thumb to move
+     * @param toX the x-coordinate the thumb ends at
+     */
+    void animateTo(BaseThumb thumb, float toX) {
+        int channel = indexOf(thumb);
+        if (channel < 0) {
+            channel = indexOf(null);
+        }
+        if (channel < 0 || mDurationNanos == 0) {
+            // More thumbs than channels, or animations turned off.
+            if (channel >= 0) {
+                mThumbs[channel] = null;
+            }
+            thumb.setX(toX);
+            mView.invalidate();
+            return;
+        }
+        if (thumb.getX() == toX) {
+            mThumbs[channel] = null;
+            return;
+        }
+
+        mThumbs[channel] = thumb;
+        mFromX[channel] = thumb.getX();
+        mToX[channel] = toX;
+        mElapsedNanos[channel] = 0;
+        requestFrame();
+    }
+
+    /**
+     * Stops the move of the thumb where it is.
+     */
+    void cancel(BaseThumb thumb) {
+        final int channel = indexOf(thumb);
+        if (channel >= 0) {
+            mThumbs[channel] = null;
+        }
+    }
+
+    /**
+     * Stops all moves where they are. Used when the thumbs are replaced.
+     */
+    void cancelAll() {
+        for (int i = 0; i < CHANNELS; i++) {
+            mThumbs[i] = null;
+        }
+        cancelFrame();
+    }
+
+    /**
+     * Ends all moves at once, placing the thumbs at their targets.
+     */
+    void finishAll() {
+        boolean moved = false;
+        for (int i = 0; i < CHANNELS; i++) {
+            if (mThumbs[i] != null) {
+                mThumbs[i].setX(mToX[i]);
+                mThumbs[i] = null;
+                moved = true;
+            }
+        }
+        cancelFrame();
+        if (moved) {
+            mView.invalidate();
+        }
+    }
+
+    boolean isRunning() {
+        for (int i = 0; i < CHANNELS; i++) {
+            if (mThumbs[i] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pauses or resumes the running moves.
+     *
+     * @param paused true to stop requesting frames
+     */
+    void setPaused(boolean paused) {
+        if (paused == mPaused) {
+            return;
+        }
+        mPaused = paused;
+        if (paused) {
+            cancelFrame();
+        } else if (isRunning()) {
+            requestFrame();
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void doFrame(long frameTimeNanos) {
+        mFrameRequested = false;
+        if (mPaused) {
+            return;
+        }
+
+        // The first frame of a move advances it by one frame, so the thumb
+        // starts moving right away.
+        final long delta = (mLastFrameNanos == 0) ? FRAME_NANOS : frameTimeNanos - mLastFrameNanos;
+        mLastFrameNanos = frameTimeNanos;
+
+        boolean running = false;
+        for (int i = 0; i < CHANNELS; i++) {
+            final BaseThumb thumb = mThumbs[i];
+            if (thumb == null) {
+                continue;
+            }
+            mElapsedNanos[i] += delta;
+            if (mElapsedNanos[i] >= mDurationNanos) {
+                thumb.setX(mToX[i]);
+                mThumbs[i] = null;
+            } else {
+                // Decelerates into the target.
+                final float t = 1f - mElapsedNanos[i] / (float) mDurationNanos;
+                thumb.setX(mToX[i] - (mToX[i] - mFromX[i]) * t * t);
+                running = true;
+            }
+        }
+        mView.invalidate();
+
+        if (running) {
+            requestFrame();
+        } else {
+            mLastFrameNanos = 0;
+        }
+    }
+
+    private void requestFrame() {
+        if (mFrameRequested || mPaused) {
+            return;
+        }
+        mFrameRequested = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mFrameCallback == null) {
+                mFrameCallback = Api16.createFrameCallback(this);
+            }
+            Api16.postFrameCallback(mFrameCallback);
+        } else {
+            mView.postDelayed(mFrameRunnable, FRAME_DELAY_MILLIS);
+        }
+    }
+
+    private void cancelFrame() {
+        mLastFrameNanos = 0;
+        if (!mFrameRequested) {
+            return;
+        }
+        mFrameRequested = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Api16.removeFrameCallback(mFrameCallback);
+        } else {
+            mView.removeCallbacks(mFrameRunnable);
+        }
+    }
+
+    private int indexOf(BaseThumb thumb) {
+        for (int i = 0; i < CHANNELS; i++) {
+            if (mThumbs[i] == thumb) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class Api16 {
+
+        static Object createFrameCallback(final ThumbAnimator animator) {
+            return new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    animator.doFrame(frameTimeNanos);
+                }
+            };
+        }
+
+        static void postFrameCallback(Object callback) {
+            Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) callback);
+        }
+
+        static void removeFrameCallback(Object callback) {
+            Choreographer.getInstance().removeFrameCallback((Choreographer.FrameCallback) callback);
+        }
+    }
+}
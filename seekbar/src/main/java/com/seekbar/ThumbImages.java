@@ -0,0 +1,299 @@
+package com.seekbar;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+
+/**
+ * Holds the normal and pressed thumb images of one bar. Both thumbs of a bar
+ * share the same instance, and when the normal and pressed resources are the
+ * same image it is only decoded once.
+ * <p>
+ * Images are decoded straight to the size they are drawn at: a power of two
+ * inSampleSize first drops most of the pixels while decoding, then
+ * inDensity/inTargetDensity scale the rest to the exact target size.
+ */
+public class ThumbImages {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final int mNormalId;
+    private final int mPressedId;
+    private final float mSizePx;
+    private final boolean mOpaque;
+
+    // Drawn size of the images, known even when no pixels are decoded.
+    private final int mNormalWidth;
+    private final int mNormalHeight;
+    private final int mPressedWidth;
+    private final int mPressedHeight;
+
+    private Bitmap mImageNormal;
+    private Bitmap mImagePressed;
+
+    // Only touched on the main thread.
+    private boolean mLoading;
+    // Bumped on release so decodes started before it are dropped.
+    private int mGeneration;
+    // Time the last pixel decode took.
+    private long mDecodeNanos;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    private ThumbImages(int normalId, int pressedId, float sizePx, boolean opaque, int[] normalSize, int[] pressedSize) {
+        mNormalId = normalId;
+        mPressedId = pressedId;
+        mSizePx = sizePx;
+        mOpaque = opaque;
+        mNormalWidth = normalSize[0];
+        mNormalHeight = normalSize[1];
+        mPressedWidth = pressedSize[0];
+        mPressedHeight = pressedSize[1];
+    }
+
+    /**
+     * Reads the drawn size of the thumb images without decoding any pixels.
+     * Used when the thumbs are drawn as circles and only the image size is
+     * needed for the bar margins.
+     *
+     * @param res resources to load the images from
+     * @param normalId resource id of the normal image
+     * @param pressedId resource id of the pressed image
+     * @param sizePx size of the longest image side on screen in px; -1 to use
+     *            the density-scaled size of the resource
+     * @param opaque whether RGB_565 should be requested
+     * @return images holding the sizes only
+     */
+    public static ThumbImages decodeBounds(Resources res, int normalId, int pressedId, float sizePx, boolean opaque) {
+        final BitmapFactory.Options normal = computeOptions(res, normalId, sizePx, opaque);
+        final BitmapFactory.Options pressed = (pressedId == normalId) ? normal
+                : computeOptions(res, pressedId, sizePx, opaque);
+        return new ThumbImages(normalId, pressedId, sizePx, opaque,
+                new int[] {normal.outWidth, normal.outHeight},
+                new int[] {pressed.outWidth, pressed.outHeight});
+    }
+
+    /**
+     * Decodes the thumb images at their drawn size.
+     *
+     * @param res resources to load the images from
+     * @param normalId resource id of the normal image
+     * @param pressedId resource id of the pressed image
+     * @param sizePx size of the longest image side on screen in px; -1 to use
+     *            the density-scaled size of the resource
+     * @param opaque whether RGB_565 should be requested. The decoder still
+     *            returns ARGB_8888 for images that have an alpha channel.
+     * @return the decoded images
+     */
+    public static ThumbImages decode(Resources res, int normalId, int pressedId, float sizePx, boolean opaque) {
+        final ThumbImages images = decodeBounds(res, normalId, pressedId, sizePx, opaque);
+        images.decodePixels(res);
+        return images;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Returns if these images were created for the given parameters and can be
+     * reused instead of decoding again.
+     */
+    public boolean matches(int normalId, int pressedId, float sizePx, boolean opaque) {
+        return mNormalId == normalId && mPressedId == pressedId && mSizePx == sizePx && mOpaque == opaque;
+    }
+
+    public boolean hasBitmaps() {
+        return mImageNormal != null && mImagePressed != null;
+    }
+
+    public Bitmap getImageNormal() {
+        return mImageNormal;
+    }
+
+    public Bitmap getImagePressed() {
+        return mImagePressed;
+    }
+
+    public int getNormalWidth() {
+        return mNormalWidth;
+    }
+
+    public int getNormalHeight() {
+        return mNormalHeight;
+    }
+
+    public int getPressedWidth() {
+        return mPressedWidth;
+    }
+
+    public int getPressedHeight() {
+        return mPressedHeight;
+    }
+
+    /**
+     * Gets the number of bytes held by the decoded bitmaps. A bitmap shared by
+     * the normal and pressed state is only counted once.
+     *
+     * @return the byte count; 0 if nothing is decoded
+     */
+    public int getByteCount() {
+        int count = 0;
+        if (mImageNormal != null) {
+            count += mImageNormal.getByteCount();
+        }
+        if (mImagePressed != null && mImagePressed != mImageNormal) {
+            count += mImagePressed.getByteCount();
+        }
+        return count;
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Decodes the pixels of both images at the sizes computed by
+     * {@link #decodeBounds}.
+     */
+    void decodePixels(Resources res) {
+        final long start = System.nanoTime();
+        mImageNormal = decodeResource(res, mNormalId, mSizePx, mOpaque);
+        mImagePressed = (mPressedId == mNormalId) ? mImageNormal
+                : decodeResource(res, mPressedId, mSizePx, mOpaque);
+        mDecodeNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Decodes the pixels on the background executor. The bitmaps are handed
+     * over on the main thread, after which onLoaded is run there; until then
+     * {@link #hasBitmaps()} returns false.
+     *
+     * @param res resources to load the images from
+     * @param onLoaded run on the main thread once the bitmaps are set
+     */
+    void decodePixelsAsync(final Resources res, final Runnable onLoaded) {
+        if (mLoading) {
+            return;
+        }
+        mLoading = true;
+        final int generation = mGeneration;
+        SeekBarExecutor.getBackground().execute(new Runnable() {
+            @Override
+            public void run() {
+                final long start = System.nanoTime();
+                final Bitmap normal = decodeResource(res, mNormalId, mSizePx, mOpaque);
+                final Bitmap pressed = (mPressedId == mNormalId) ? normal
+                        : decodeResource(res, mPressedId, mSizePx, mOpaque);
+                final long decodeNanos = System.nanoTime() - start;
+                SeekBarExecutor.postToMain(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mGeneration) {
+                            return;
+                        }
+                        mLoading = false;
+                        mDecodeNanos = decodeNanos;
+                        mImageNormal = normal;
+                        mImagePressed = pressed;
+                        onLoaded.run();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Gets the time the last pixel decode took, on whichever thread it ran.
+     */
+    long getDecodeNanos() {
+        return mDecodeNanos;
+    }
+
+    /**
+     * Drops the decoded bitmaps, keeping the sizes. A decode in flight is
+     * discarded when it completes.
+     */
+    void releaseBitmaps() {
+        mImageNormal = null;
+        mImagePressed = null;
+        mLoading = false;
+        mGeneration++;
+    }
+
+    /**
+     * Returns if an asynchronous decode is in flight.
+     */
+    boolean isLoading() {
+        return mLoading;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static Bitmap decodeResource(Resources res, int resId, float sizePx, boolean opaque) {
+        final BitmapFactory.Options opts = computeOptions(res, resId, sizePx, opaque);
+        opts.inJustDecodeBounds = false;
+        final Bitmap bitmap = BitmapFactory.decodeResource(res, resId, opts);
+        if (bitmap != null) {
+            // inTargetDensity was only used as a scale factor; mark the bitmap as
+            // screen density so the canvas draws it 1:1.
+            bitmap.setDensity(res.getDisplayMetrics().densityDpi);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Reads the source size of the image and fills in the options that decode
+     * it at the target size. outWidth/outHeight are set to the resulting size.
+     */
+    private static BitmapFactory.Options computeOptions(Resources res, int resId, float sizePx, boolean opaque) {
+        final BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inJustDecodeBounds = true;
+        opts.inScaled = false;
+        BitmapFactory.decodeResource(res, resId, opts);
+
+        final int srcWidth = opts.outWidth;
+        final int srcHeight = opts.outHeight;
+        final int srcSize = Math.max(srcWidth, srcHeight);
+
+        final float targetSize;
+        if (sizePx > 0) {
+            targetSize = sizePx;
+        } else {
+            // Same scaling decodeResource applies for the resource's density bucket.
+            final TypedValue value = new TypedValue();
+            res.getValue(resId, value, true);
+            final int density;
+            if (value.density == TypedValue.DENSITY_DEFAULT) {
+                density = DisplayMetrics.DENSITY_DEFAULT;
+            } else {
+                density = value.density;
+            }
+            if (density == TypedValue.DENSITY_NONE) {
+                targetSize = srcSize;
+            } else {
+                targetSize = srcSize * res.getDisplayMetrics().densityDpi / (float) density;
+            }
+        }
+        final int target = Math.max(1, Math.round(targetSize));
+
+        // Sample down by powers of two while the result stays at least as large
+        // as the target, then let density scaling do the rest.
+        int sampleSize = 1;
+        while (srcSize / (sampleSize * 2) >= target) {
+            sampleSize *= 2;
+        }
+        final int sampledSize = Math.max(1, srcSize / sampleSize);
+
+        opts.inSampleSize = sampleSize;
+        opts.inPreferredConfig = opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        if (sampledSize != target) {
+            opts.inScaled = true;
+            opts.inDensity = sampledSize;
+            opts.inTargetDensity = target;
+        }
+
+        final float scale = target / (float) srcSize;
+        opts.outWidth = Math.max(1, Math.round(srcWidth * scale));
+        opts.outHeight = Math.max(1, Math.round(srcHeight * scale));
+        return opts;
+    }
+}
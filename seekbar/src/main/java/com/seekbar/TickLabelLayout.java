@@ -0,0 +1,99 @@
+package com.seekbar;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import java.util.Arrays;
+
+/**
+ * Positions the tick labels of a bar. Labels that would overlap the label
+ * before them are culled greedily from left to right. The layout is computed
+ * once when the bar is created, i.e. once per size or tick count change, and
+ * drawing only walks the labels that survived.
+ */
+public class TickLabelLayout {
+
+    private final Paint mPaint;
+    private final float mBaselineY;
+
+    // The labels that are drawn and the x-coordinate of their left edge.
+    private final LabelCache.Label[] mLabels;
+    private final float[] mLeft;
+
+    /**
+     * Measures the labels and culls the ones that collide.
+     *
+     * @param labels cache to get the measured labels from
+     * @param paint the paint the labels are drawn with
+     * @param leftX x-coordinate of the first tick
+     * @param tickDistance distance between two ticks
+     * @param tickCount number of ticks
+     * @param baselineY y-coordinate of the text baseline
+     * @param minX smallest x-coordinate a label may start at
+     * @param maxX largest x-coordinate a label may end at
+     * @param minGap minimum horizontal space between two labels
+     */
+    public TickLabelLayout(LabelCache labels,
+                           Paint paint,
+                           float leftX,
+                           float tickDistance,
+                           int tickCount,
+                           float baselineY,
+                           float minX,
+                           float maxX,
+                           float minGap) {
+        mPaint = paint;
+        mBaselineY = baselineY;
+
+        final LabelCache.Label[] visible = new LabelCache.Label[tickCount];
+        final float[] left = new float[tickCount];
+        int count = 0;
+        float lastRight = -Float.MAX_VALUE;
+
+        int i = 0;
+        while (i < tickCount) {
+            final float x = leftX + i * tickDistance;
+            final LabelCache.Label label = labels.get(i, paint);
+            if (label == null) {
+                i++;
+                continue;
+            }
+            final float labelLeft = Math.max(minX, Math.min(x - label.width / 2f, maxX - label.width));
+            if (labelLeft >= lastRight + minGap) {
+                visible[count] = label;
+                left[count] = labelLeft;
+                count++;
+                lastRight = labelLeft + label.width;
+                // Labels of one bar are usually about the same width, so skip
+                // the ticks that would collide with a label of this width
+                // without measuring them.
+                i += Math.max(1, (int) ((label.width + minGap) / tickDistance));
+            } else {
+                i++;
+            }
+        }
+
+        mLabels = Arrays.copyOf(visible, count);
+        mLeft = Arrays.copyOf(left, count);
+    }
+
+    /**
+     * Gets the number of labels that are drawn.
+     */
+    public int getCount() {
+        return mLabels.length;
+    }
+
+    /**
+     * Draws the labels that survived culling.
+     *
+     * @param canvas Canvas to draw on
+     * @return the number of canvas calls issued
+     */
+    public int draw(Canvas canvas) {
+        for (int i = 0; i < mLabels.length; i++) {
+            canvas.drawText(mLabels[i].text, mLeft[i], mBaselineY, mPaint);
+        }
+        return mLabels.length;
+    }
+}
@@ -0,0 +1,116 @@
+package com.seekbar;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+/**
+ * Extrapolates where the finger will be a short time after the last touch
+ * sample, from the velocity over the most recent samples including the
+ * batched historical ones. Used to draw the dragged thumb ahead of the
+ * reported position, hiding the input latency.
+ * <p>
+ * The prediction is redone from actual samples on every event, so an
+ * overshoot is corrected with the next one, and it is dropped once no sample
+ * arrived for longer than the horizon.
+ */
+final class TouchPredictor {
+
+    static final long DEFAULT_HORIZON_MILLIS = 16;
+    static final long MAX_HORIZON_MILLIS = 32;
+
+    // Private Constants ///////////////////////////////////////////////////////
+
+    private static final int SAMPLES = 4;
+    // Samples older than this relative to the newest one are not used.
+    private static final long SAMPLE_WINDOW_MILLIS = 40;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final long[] mTimes = new long[SAMPLES];
+    private final float[] mXs = new float[SAMPLES];
+    // Index of the newest sample and the number of samples held
+    private int mHead = -1;
+    private int mCount;
+
+    private long mHorizonMillis = DEFAULT_HORIZON_MILLIS;
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * @param horizonMillis how far ahead to predict, capped at
+     *            {@link #MAX_HORIZON_MILLIS}
+     */
+    void setHorizon(long horizonMillis) {
+        mHorizonMillis = Math.max(0, Math.min(horizonMillis, MAX_HORIZON_MILLIS));
+    }
+
+    long getHorizon() {
+        return mHorizonMillis;
+    }
+
+    void onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                reset();
+                add(event.getEventTime(), event.getX());
+                break;
+            case MotionEvent.ACTION_MOVE:
+                for (int i = 0, n = event.getHistorySize(); i < n; i++) {
+                    add(event.getHistoricalEventTime(i), event.getHistoricalX(i));
+                }
+                add(event.getEventTime(), event.getX());
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                reset();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Gets how far the finger is expected to move beyond the last sample
+     * within the horizon.
+     *
+     * @return the offset in px; 0 if there is too little recent input
+     */
+    float getOffset() {
+        if (mCount < 2 || mHorizonMillis == 0) {
+            return 0;
+        }
+        final long newestTime = mTimes[mHead];
+        if (SystemClock.uptimeMillis() - newestTime > mHorizonMillis) {
+            return 0;
+        }
+
+        // Oldest sample still inside the window.
+        int oldest = mHead;
+        for (int i = 1; i < mCount; i++) {
+            final int index = (mHead - i + SAMPLES) % SAMPLES;
+            if (newestTime - mTimes[index] > SAMPLE_WINDOW_MILLIS) {
+                break;
+            }
+            oldest = index;
+        }
+        final long dt = newestTime - mTimes[oldest];
+        if (dt <= 0) {
+            return 0;
+        }
+        return (mXs[mHead] - mXs[oldest]) / dt * mHorizonMillis;
+    }
+
+    void reset() {
+        mHead = -1;
+        mCount = 0;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void add(long time, float x) {
+        mHead = (mHead + 1) % SAMPLES;
+        mTimes[mHead] = time;
+        mXs[mHead] = x;
+        mCount = Math.min(mCount + 1, SAMPLES);
+    }
+}
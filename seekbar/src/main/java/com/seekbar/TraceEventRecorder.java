@@ -0,0 +1,140 @@
+package com.seekbar;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Collects the sections of {@link SeekBarTrace} in memory and writes them in
+ * the Chrome trace-event JSON format, which chrome://tracing and Perfetto
+ * open. Does not depend on a device, so traces recorded in Robolectric tests
+ * can be kept as CI artifacts and compared across library versions.
+ * <p>
+ * Sections are stored as begin/end pairs with microsecond timestamps relative
+ * to the creation of the recorder.
+ */
+public class TraceEventRecorder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final char PHASE_BEGIN = 'B';
+    private static final char PHASE_END = 'E';
+
+    private final long mStartNanos = System.nanoTime();
+
+    private String[] mNames = new String[INITIAL_CAPACITY];
+    private char[] mPhases = new char[INITIAL_CAPACITY];
+    private long[] mTimestampsNanos = new long[INITIAL_CAPACITY];
+    private long[] mThreadIds = new long[INITIAL_CAPACITY];
+    private int mCount;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Records the beginning of a section on the current thread.
+     */
+    public synchronized void begin(String name) {
+        add(name, PHASE_BEGIN);
+    }
+
+    /**
+     * Records the end of the section last begun on the current thread.
+     */
+    public synchronized void end() {
+        add(null, PHASE_END);
+    }
+
+    /**
+     * Gets the number of recorded events; each section counts twice.
+     */
+    public synchronized int getEventCount() {
+        return mCount;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(mNames, 0, mCount, null);
+        mCount = 0;
+    }
+
+    /**
+     * Writes the recorded events as a Chrome trace-event JSON object.
+     *
+     * @param writer the writer to write to; not closed
+     * @throws IOException if writing fails
+     */
+    public synchronized void writeTo(Writer writer) throws IOException {
+        writer.write("{\"traceEvents\":[");
+        for (int i = 0; i < mCount; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write("\n{\"ph\":\"");
+            writer.write(mPhases[i]);
+            writer.write('"');
+            if (mNames[i] != null) {
+                writer.write(",\"name\":\"");
+                writeEscaped(writer, mNames[i]);
+                writer.write('"');
+            }
+            writer.write(",\"cat\":\"seekbar\",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(mThreadIds[i]));
+            writer.write(",\"ts\":");
+            final long nanos = mTimestampsNanos[i];
+            writer.write(Long.toString(nanos / 1000));
+            writer.write('.');
+            writer.write(Long.toString(nanos % 1000 / 100));
+            writer.write('}');
+        }
+        writer.write("\n]}\n");
+    }
+
+    /**
+     * Writes the recorded events to a file, replacing its content.
+     *
+     * @param file the file to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(File file) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try {
+            writeTo(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void add(String name, char phase) {
+        if (mCount == mNames.length) {
+            final int capacity = mCount * 2;
+            mNames = Arrays.copyOf(mNames, capacity);
+            mPhases = Arrays.copyOf(mPhases, capacity);
+            mTimestampsNanos = Arrays.copyOf(mTimestampsNanos, capacity);
+            mThreadIds = Arrays.copyOf(mThreadIds, capacity);
+        }
+        mNames[mCount] = name;
+        mPhases[mCount] = phase;
+        mTimestampsNanos[mCount] = System.nanoTime() - mStartNanos;
+        mThreadIds[mCount] = Thread.currentThread().getId();
+        mCount++;
+    }
+
+    private static void writeEscaped(Writer writer, String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+}
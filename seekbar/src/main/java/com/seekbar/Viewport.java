@@ -0,0 +1,194 @@
+package com.seekbar;
+
+/**
+ * The window of a long domain, such as epoch millis, that a bar shows across
+ * its width. Ticks lie every tick interval from the start of the domain; the
+ * window can be zoomed and panned but always stays inside the domain and
+ * spans at least a few ticks.
+ * <p>
+ * Conversions work on the window alone, so their cost does not depend on the
+ * size of the domain.
+ */
+public final class Viewport {
+
+    // Fewest ticks the window may be zoomed in to.
+    private static final int MIN_VISIBLE_TICKS = 2;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final long mDomainStart;
+    private final long mDomainEnd;
+    private final long mTickInterval;
+    private final long mMinSpan;
+
+    private long mViewStart;
+    private long mViewEnd;
+
+    private float mLeftX;
+    private float mWidth;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a viewport showing the whole domain.
+     *
+     * @param domainStart the smallest value
+     * @param domainEnd the largest value
+     * @param tickInterval the distance between two ticks
+     */
+    public Viewport(long domainStart, long domainEnd, long tickInterval) {
+        if (domainEnd <= domainStart) {
+            throw new IllegalArgumentException("domainEnd must be greater than domainStart");
+        }
+        if (tickInterval <= 0) {
+            throw new IllegalArgumentException("tickInterval must be positive");
+        }
+        mDomainStart = domainStart;
+        mDomainEnd = domainEnd;
+        mTickInterval = tickInterval;
+        mMinSpan = Math.min(MIN_VISIBLE_TICKS * tickInterval, domainEnd - domainStart);
+        mViewStart = domainStart;
+        mViewEnd = domainEnd;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public long getDomainStart() {
+        return mDomainStart;
+    }
+
+    public long getDomainEnd() {
+        return mDomainEnd;
+    }
+
+    public long getTickInterval() {
+        return mTickInterval;
+    }
+
+    public long getViewStart() {
+        return mViewStart;
+    }
+
+    public long getViewEnd() {
+        return mViewEnd;
+    }
+
+    /**
+     * Sets the pixels the window is mapped to.
+     *
+     * @param leftX x-coordinate of the start of the window
+     * @param width width of the window in px
+     */
+    public void setBounds(float leftX, float width) {
+        mLeftX = leftX;
+        mWidth = width;
+    }
+
+    /**
+     * Shows the given part of the domain, moved inside the domain and widened
+     * to the smallest span if needed.
+     *
+     * @param viewStart the first value shown
+     * @param viewEnd the last value shown
+     */
+    public void setVisibleRange(long viewStart, long viewEnd) {
+        long span = Math.max(viewEnd - viewStart, mMinSpan);
+        span = Math.min(span, mDomainEnd - mDomainStart);
+        long start = Math.max(mDomainStart, Math.min(viewStart, mDomainEnd - span));
+        mViewStart = start;
+        mViewEnd = start + span;
+    }
+
+    /**
+     * Gets the x-coordinate of a value; outside of the bounds for values that
+     * are not shown.
+     */
+    public float valueToX(long value) {
+        return mLeftX + (float) ((double) (value - mViewStart) / (mViewEnd - mViewStart) * mWidth);
+    }
+
+    /**
+     * Gets the value at an x-coordinate, limited to the domain.
+     */
+    public long xToValue(float x) {
+        final double fraction = (mWidth > 0) ? (x - mLeftX) / mWidth : 0;
+        final long value = mViewStart + Math.round(fraction * (mViewEnd - mViewStart));
+        return Math.max(mDomainStart, Math.min(value, mDomainEnd));
+    }
+
+    /**
+     * Gets the tick nearest to a value. The end of the domain counts as a tick.
+     */
+    public long snap(long value) {
+        if (value >= mDomainEnd) {
+            return mDomainEnd;
+        }
+        final long offset = Math.max(0, value - mDomainStart);
+        long tick = mDomainStart + (offset + mTickInterval / 2) / mTickInterval * mTickInterval;
+        if (tick > mDomainEnd) {
+            tick -= mTickInterval;
+        }
+        return (mDomainEnd - value < Math.abs(value - tick)) ? mDomainEnd : tick;
+    }
+
+    /**
+     * Zooms around an x-coordinate, keeping the value under it in place.
+     *
+     * @param focusX the x-coordinate to zoom around
+     * @param scale how much larger things get; above 1 zooms in
+     */
+    public void zoom(float focusX, float scale) {
+        if (scale <= 0 || mWidth <= 0) {
+            return;
+        }
+        final long focus = xToValue(focusX);
+        final double fraction = Math.max(0, Math.min((focusX - mLeftX) / mWidth, 1));
+        final long span = Math.round((mViewEnd - mViewStart) / (double) scale);
+        final long clamped = Math.max(mMinSpan, Math.min(span, mDomainEnd - mDomainStart));
+        final long start = focus - Math.round(fraction * clamped);
+        setVisibleRange(start, start + clamped);
+    }
+
+    /**
+     * Moves the window by a distance in px; positive distances reveal smaller
+     * values, like dragging the content to the right.
+     */
+    public void pan(float dx) {
+        if (mWidth <= 0) {
+            return;
+        }
+        final long span = mViewEnd - mViewStart;
+        final long shift = Math.round(dx / (double) mWidth * span);
+        setVisibleRange(mViewStart - shift, mViewEnd - shift);
+    }
+
+    /**
+     * Gets every how many ticks one is drawn so that drawn ticks are at least
+     * the given distance apart. The stride is a power of two, so ticks stay in
+     * place while zooming until the stride changes.
+     *
+     * @param minSpacingPx smallest distance between two drawn ticks
+     * @return the tick stride, at least 1
+     */
+    public long getTickStride(float minSpacingPx) {
+        final double tickSpacing = mTickInterval / (double) (mViewEnd - mViewStart) * mWidth;
+        long stride = 1;
+        while (stride * tickSpacing < minSpacingPx && stride < Long.MAX_VALUE / 2) {
+            stride <<= 1;
+        }
+        return stride;
+    }
+
+    /**
+     * Gets the first tick of the given stride at or after the start of the
+     * window.
+     *
+     * @param stride the tick stride, see {@link #getTickStride(float)}
+     * @return the value of the tick
+     */
+    public long getFirstVisibleTick(long stride) {
+        final long step = mTickInterval * stride;
+        final long offset = mViewStart - mDomainStart;
+        return mDomainStart + (offset + step - 1) / step * step;
+    }
+}
@@ -0,0 +1,249 @@
+package com.seekbar;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Draws the waveform of an audio recording along the bar, e.g. to pick a trim
+ * range with the thumbs. The part between the thumbs is drawn in the
+ * connecting line color of the bar unless a highlight color is set.
+ * <p>
+ * The samples are reduced to a min/max pyramid on
+ * {@link SeekBarExecutor#getBackground()} once. Laying out then reads a few
+ * pyramid blocks per pixel column, whatever the length of the recording, the
+ * width of the bar or the visible range, and a draw only issues the columns
+ * computed then.
+ */
+public class WaveformLayer extends BarLayer {
+
+    public static final int DEFAULT_COLOR = 0x55000000;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Paint mPaint = new Paint();
+    private final Paint mHighlightPaint = new Paint();
+    private boolean mHighlightColorSet;
+
+    private MinMaxPyramid mPyramid;
+    // Latest build started; results of older ones are dropped
+    private int mGeneration;
+
+    // Shown part of the recording; an end of -1 shows all of it
+    private long mVisibleStart;
+    private long mVisibleEnd = -1;
+
+    // One vertical line per pixel column, from the first tick
+    private float[] mLines = new float[0];
+    private int mColumnCount;
+    private final short[] mExtremes = new short[2];
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    public WaveformLayer() {
+        mPaint.setColor(DEFAULT_COLOR);
+        mPaint.setStrokeWidth(1);
+        mHighlightPaint.setStrokeWidth(1);
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Sets 16 bit PCM samples of one channel. The array is read on a
+     * background thread and must not be changed afterwards.
+     *
+     * @param samples the samples
+     */
+    public void setSamples(short[] samples) {
+        setSamples(ShortBuffer.wrap(samples));
+    }
+
+    /**
+     * Sets 16 bit PCM samples of one channel, from the position to the limit
+     * of the buffer, e.g. a view of a memory-mapped file. The buffer is read
+     * on a background thread and its content must not be changed afterwards.
+     *
+     * @param samples the samples
+     */
+    public void setSamples(ShortBuffer samples) {
+        final ShortBuffer buffer = samples.duplicate();
+        final int generation = ++mGeneration;
+        SeekBarExecutor.getBackground().execute(new Runnable() {
+            @Override
+            public void run() {
+                final MinMaxPyramid pyramid = MinMaxPyramid.build(buffer);
+                SeekBarExecutor.postToMain(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mGeneration) {
+                            return;
+                        }
+                        mPyramid = pyramid;
+                        buildLines();
+                        invalidate();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Sets the 16 bit PCM samples of one channel stored in a file, e.g. a raw
+     * recording or the data chunk of a WAV file. The file is memory-mapped,
+     * so it is paged in by the background build instead of being loaded.
+     *
+     * @param file the file
+     * @param offset position of the first sample in bytes
+     * @param order byte order of the samples
+     * @throws IOException if the file cannot be mapped
+     */
+    public void setSamples(File file, long offset, ByteOrder order) throws IOException {
+        final RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = in.getChannel();
+            // The mapping stays valid after the channel is closed.
+            setSamples(channel.map(FileChannel.MapMode.READ_ONLY, offset, channel.size() - offset)
+                    .order(order)
+                    .asShortBuffer());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Removes the samples and the waveform.
+     */
+    public void clearSamples() {
+        mGeneration++;
+        mPyramid = null;
+        mColumnCount = 0;
+        invalidate();
+    }
+
+    /**
+     * Gets the number of samples shown.
+     *
+     * @return the count; 0 until the samples are reduced
+     */
+    public long getSampleCount() {
+        return (mPyramid != null) ? mPyramid.getSampleCount() : 0;
+    }
+
+    /**
+     * Shows only a part of the recording across the bar, e.g. to zoom in.
+     *
+     * @param startSample index of the sample at the first tick
+     * @param endSample index after the sample at the last tick; -1 for the end
+     *            of the recording
+     */
+    public void setVisibleRange(long startSample, long endSample) {
+        if (endSample >= 0 && endSample <= startSample) {
+            throw new IllegalArgumentException("endSample must be greater than startSample");
+        }
+        mVisibleStart = Math.max(0, startSample);
+        mVisibleEnd = endSample;
+        buildLines();
+        invalidate();
+    }
+
+    /**
+     * Sets the colors of the waveform outside and inside the selection.
+     */
+    public void setColors(int color, int highlightColor) {
+        mPaint.setColor(color);
+        mHighlightPaint.setColor(highlightColor);
+        mHighlightColorSet = true;
+        invalidate();
+    }
+
+    // BarLayer Methods ////////////////////////////////////////////////////////
+
+    @Override
+    protected void onLayout() {
+        buildLines();
+    }
+
+    @Override
+    protected void draw(Canvas canvas, int leftIndex, int rightIndex, float leftX, float rightX) {
+        final int n = mColumnCount;
+        if (n == 0) {
+            return;
+        }
+        if (!mHighlightColorSet) {
+            mHighlightPaint.setColor(getOwner().mConnectingLineColor);
+        }
+        final float left = getLeft();
+        final int first = Math.max(0, Math.min((int) Math.ceil(leftX - left), n));
+        final int last = Math.max(first, Math.min((int) Math.floor(rightX - left) + 1, n));
+        final float[] lines = mLines;
+        int count = 0;
+        if (first > 0) {
+            canvas.drawLines(lines, 0, first * 4, mPaint);
+            count++;
+        }
+        if (last > first) {
+            canvas.drawLines(lines, first * 4, (last - first) * 4, mHighlightPaint);
+            count++;
+        }
+        if (n > last) {
+            canvas.drawLines(lines, last * 4, (n - last) * 4, mPaint);
+            count++;
+        }
+        countDrawCalls(count);
+    }
+
+    @Override
+    protected void onRemoved() {
+        mGeneration++;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void buildLines() {
+        final MinMaxPyramid pyramid = mPyramid;
+        if (pyramid == null || !isLaidOut()) {
+            mColumnCount = 0;
+            return;
+        }
+        final long start = Math.min(mVisibleStart, pyramid.getSampleCount());
+        final long end = (mVisibleEnd < 0) ? pyramid.getSampleCount()
+                : Math.min(mVisibleEnd, pyramid.getSampleCount());
+        final int n = (int) (getRight() - getLeft()) + 1;
+        if (mLines.length < n * 4) {
+            mLines = new float[n * 4];
+        }
+
+        final float left = getLeft();
+        final float barY = getBarY();
+        final float amplitude = Math.min(barY - getTop(), getBottom() - barY);
+        final double samplesPerColumn = (end - start) / (double) n;
+        final short[] extremes = mExtremes;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            final long s0 = start + (long) (samplesPerColumn * i);
+            final long s1 = Math.max(s0 + 1, start + (long) (samplesPerColumn * (i + 1)));
+            if (!pyramid.range(s0, s1, extremes)) {
+                break;
+            }
+            float top = barY - amplitude * extremes[1] / 32768f;
+            float bottom = barY - amplitude * extremes[0] / 32768f;
+            if (bottom - top < 1) {
+                top -= 0.5f;
+                bottom += 0.5f;
+            }
+            final int c = i * 4;
+            mLines[c] = left + i + 0.5f;
+            mLines[c + 1] = top;
+            mLines[c + 2] = left + i + 0.5f;
+            mLines[c + 3] = bottom;
+            count++;
+        }
+        mColumnCount = count;
+    }
+}
@@ -18,6 +18,9 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 
+import com.seekbar.TickLabelLayout;
+import com.seekbar.Viewport;
+
 
 /**
  * This class represents the underlying gray bar in the RangeBar (without the
@@ -27,6 +30,8 @@ class SlidingBar {
 
     // Member Variables ////////////////////////////////////////////////////////
     private static final float DEFAULT_BAR_RADIUS=5;
+    // Most ticks drawn while decimating.
+    private static final int MAX_DECIMATED_TICKS = 24;
     private final Paint mPaint;
 
     // Left-coordinate of the horizontal bar.
@@ -40,8 +45,10 @@ class SlidingBar {
     private final float mTickStartY;
     private final float mTickEndY;
     private final int mBarColor;
-    private SlidingSeekBar timerSeekBar;
     private float mRadius;
+    private TickLabelLayout mTickLabels;
+    // While set only every few ticks are drawn, see getTickStride().
+    private boolean mDecimateTicks;
 
     // Constructor /////////////////////////////////////////////////////////////
 
@@ -80,14 +87,94 @@ class SlidingBar {
      * 
      * @param canvas Canvas to draw on; should be the Canvas passed into {#link
      *            View#onDraw()}
+     * @param leftIndex index of the left thumb
+     * @param rightIndex index of the right thumb
+     * @return the number of canvas calls issued
      */
-    void draw(Canvas canvas) {
+    int draw(Canvas canvas, int leftIndex, int rightIndex) {
 
         mPaint.setColor(this.mBarColor);
 
         canvas.drawLine(mLeftX, mY, mRightX, mY, mPaint);
 
-        drawTicks(canvas);
+        int count = 1 + drawTicks(canvas, leftIndex, rightIndex);
+        if (mTickLabels != null) {
+            count += mTickLabels.draw(canvas);
+        }
+        return count;
+    }
+
+    /**
+     * Draws the bar with the ticks of a viewport instead of its own. Only the
+     * ticks inside the window are visited, thinned out so that they are at
+     * least minTickSpacing apart, so the cost depends on the width of the bar
+     * and not on the size of the domain.
+     *
+     * @param canvas Canvas to draw on
+     * @param viewport the window of the domain shown across the bar
+     * @param minTickSpacing smallest distance between two drawn ticks in px
+     * @param leftValue value of the left thumb
+     * @param rightValue value of the right thumb
+     * @return the number of canvas calls issued
+     */
+    int drawViewport(Canvas canvas, Viewport viewport, float minTickSpacing, long leftValue, long rightValue) {
+
+        mPaint.setColor(this.mBarColor);
+
+        canvas.drawLine(mLeftX, mY, mRightX, mY, mPaint);
+        int count = 1;
+
+        final long stride = viewport.getTickStride(minTickSpacing);
+        final long step = viewport.getTickInterval() * stride;
+        final long viewEnd = viewport.getViewEnd();
+        for (long value = viewport.getFirstVisibleTick(stride); value <= viewEnd; value += step) {
+            if (value > leftValue && value < rightValue) {
+                mPaint.setColor(Color.BLACK);
+            } else {
+                mPaint.setColor(this.mBarColor);
+            }
+            final float x = viewport.valueToX(value);
+            canvas.drawLine(x, mTickStartY, x, mTickEndY, mPaint);
+            count++;
+            if (value > Long.MAX_VALUE - step) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sets whether the bar and its ticks are drawn anti-aliased.
+     */
+    void setAntiAlias(boolean antiAlias) {
+        mPaint.setAntiAlias(antiAlias);
+    }
+
+    /**
+     * Sets whether only every few ticks are drawn, so that at most about
+     * MAX_DECIMATED_TICKS remain. The first and the last tick are always
+     * drawn.
+     */
+    void setDecimateTicks(boolean decimateTicks) {
+        mDecimateTicks = decimateTicks;
+    }
+
+    /**
+     * Get the distance between two ticks.
+     *
+     * @return the tick distance in px
+     */
+    float getTickDistance() {
+        return mTickDistance;
+    }
+
+    /**
+     * Sets the tick labels drawn under the bar, laid out for this bar's ticks.
+     *
+     * @param tickLabels the label layout; null to draw no labels
+     */
+    void setTickLabels(TickLabelLayout tickLabels) {
+        mTickLabels = tickLabels;
     }
 
     /**
@@ -129,8 +216,18 @@ class SlidingBar {
      * @return the zero-based index of the nearest tick
      */
     int getNearestTickIndex(SlidingThumb thumb) {
+        return getNearestTickIndex(thumb.getX());
+    }
 
-        final int nearestTickIndex = (int) ((thumb.getX() - mLeftX + mTickDistance / 2f) / mTickDistance);
+    /**
+     * Gets the zero-based index of the nearest tick to the given x-coordinate.
+     * 
+     * @param x the x-coordinate, between the left and right edge of the bar
+     * @return the zero-based index of the nearest tick
+     */
+    int getNearestTickIndex(float x) {
+
+        final int nearestTickIndex = (int) ((x - mLeftX + mTickDistance / 2f) / mTickDistance);
 
         return nearestTickIndex;
     }
@@ -150,18 +247,30 @@ class SlidingBar {
 
     // Private Methods /////////////////////////////////////////////////////////
 
+    private int getTickStride() {
+        if (!mDecimateTicks) {
+            return 1;
+        }
+        return Math.max(2, (mNumSegments + MAX_DECIMATED_TICKS - 1) / MAX_DECIMATED_TICKS);
+    }
+
     /**
      * Draws the tick marks on the bar.
      * 
      * @param canvas Canvas to draw on; should be the Canvas passed into {#link
      *            View#onDraw()}
+     * @param leftIndex index of the left thumb
+     * @param rightIndex index of the right thumb
+     * @return the number of canvas calls issued
      */
-    private void drawTicks(Canvas canvas) {
+    private int drawTicks(Canvas canvas, int leftIndex, int rightIndex) {
 
         // Loop through and draw each tick (except final tick).
-        for (int i = 0; i < mNumSegments; i++) {
+        final int stride = getTickStride();
+        int count = 1;
+        for (int i = 0; i < mNumSegments; i += stride) {
             final float x = i * mTickDistance + mLeftX;
-            if(i>timerSeekBar.getLeftIndex() && i<timerSeekBar.getRightIndex()){
+            if(i>leftIndex && i<rightIndex){
                 mPaint.setColor(Color.BLACK);
             }else{
                 mPaint.setColor(this.mBarColor);
@@ -171,16 +280,15 @@ class SlidingBar {
             }else{
                 canvas.drawLine(x, mTickStartY, x, mTickEndY, mPaint);
             }
+            count++;
         }
         // Draw final tick. We draw the final tick outside the loop to avoid any
         // rounding discrepancies.
 //        canvas.drawLine(mRightX, mTickStartY, mRightX, mTickEndY, mPaint);
         canvas.drawCircle(mRightX,(mTickStartY+(mY + mTickHeight / 2f))/2,mRadius,mPaint);
+        return count;
     }
 
-    public void setTimerSeekBar(SlidingSeekBar timerSeekBar) {
-        this.timerSeekBar = timerSeekBar;
-    }
     /**
      * dp转px
      *
@@ -16,13 +16,25 @@ package com.seekbar.sliding;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
 import android.os.Bundle;
 import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.util.TypedValue;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.ViewConfiguration;
 
 import com.seekbar.BaseSeekBar;
 import com.seekbar.ConnectingLine;
+import com.seekbar.LabelAdapter;
+import com.seekbar.LabelCache;
+import com.seekbar.SeekBarMetrics;
+import com.seekbar.SeekBarTrace;
+import com.seekbar.ThumbImages;
+import com.seekbar.Viewport;
+import com.seekbar.sliding.listener.OnRangeValueChangeListener;
 
 
 /**
@@ -43,6 +55,12 @@ public class SlidingSeekBar extends BaseSeekBar {
     private static final int DEFAULT_TICK_COUNT = 3;
     private static final int DEFAULT_THUMB_IMAGE_NORMAL = R.drawable.icon_map_term_timer_bar;
     private static final int DEFAULT_THUMB_IMAGE_PRESSED = R.drawable.icon_map_term_timer_bar;
+    private static final float DEFAULT_LABEL_TEXT_SIZE_SP = 12;
+    private static final int DEFAULT_LABEL_TEXT_COLOR = Color.BLACK;
+    // Space between a thumb and the label above it
+    private static final float LABEL_MARGIN_DP = 4;
+    // Smallest distance between two ticks drawn in viewport mode
+    private static final float MIN_VIEWPORT_TICK_SPACING_DP = 6;
 
     private int mThumbImageNormal = DEFAULT_THUMB_IMAGE_NORMAL;
     private int mThumbImagePressed = DEFAULT_THUMB_IMAGE_PRESSED;
@@ -59,6 +77,30 @@ public class SlidingSeekBar extends BaseSeekBar {
     private int mLeftIndex = 0;
     private int mRightIndex = mTickCount - 1;
 
+    // Measured labels from the label adapter, drawn above the thumbs. The
+    // label of each thumb is only looked up again when its index changes.
+    private final LabelCache mLabels = new LabelCache();
+    private Paint mLabelPaint;
+    private float mLabelMarginPx;
+    private LabelCache.Label mLeftLabel;
+    private LabelCache.Label mRightLabel;
+    private int mLeftLabelIndex = -1;
+    private int mRightLabelIndex = -1;
+
+    // Set in viewport mode: the thumbs hold values of a long domain and the
+    // bar shows a zoomable window of it instead of mTickCount ticks
+    private Viewport mViewport;
+    private long mLeftValue;
+    private long mRightValue;
+    private ScaleGestureDetector mScaleDetector;
+    private float mMinTickSpacingPx;
+    private int mTouchSlop;
+    // State of the viewport gesture in progress
+    private float mDownX;
+    private float mLastPanX;
+    private boolean mPanning;
+    private boolean mScaling;
+
     // Constructors ////////////////////////////////////////////////////////////
 
     public SlidingSeekBar(Context context) {
@@ -107,7 +149,10 @@ public class SlidingSeekBar extends BaseSeekBar {
             mRightIndex = bundle.getInt("RIGHT_INDEX");
             mFirstSetTickCount = bundle.getBoolean("FIRST_SET_TICK_COUNT");
 
-            setThumbIndices(mLeftIndex, mRightIndex);
+            // In viewport mode the thumbs stay at their values.
+            if (mViewport == null) {
+                setThumbIndices(mLeftIndex, mRightIndex);
+            }
 
             super.onRestoreInstanceState(bundle.getParcelable("instanceState"));
 
@@ -119,97 +164,156 @@ public class SlidingSeekBar extends BaseSeekBar {
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_SIZE_CHANGED);
+        try {
+            super.onSizeChanged(w, h, oldw, oldh);
+            cancelThumbAnimations();
+
+            if (mMetrics != null) {
+                mMetrics.increment(SeekBarMetrics.COUNTER_BAR_REBUILDS);
+                mMetrics.increment(SeekBarMetrics.COUNTER_THUMB_REBUILDS);
+            }
 
-        super.onSizeChanged(w, h, oldw, oldh);
-
-        final Context ctx = getContext();
-
-        // This is the initial point at which we know the size of the View.
-
-        // Create the two thumb objects.
-        final float yPos = h / 2f;
-        mLeftThumb = new SlidingThumb(ctx,
-                               yPos,
-                               mThumbColorNormal,
-                               mThumbColorPressed,
-                               mThumbRadiusDP,
-                               mThumbImageNormal,
-                               mThumbImagePressed);
-        mRightThumb = new SlidingThumb(ctx,
-                                yPos,
-                                mThumbColorNormal,
-                                mThumbColorPressed,
-                                mThumbRadiusDP,
-                                mThumbImageNormal,
-                                mThumbImagePressed);
-
-        // Create the underlying bar.
-        final float marginLeft = mLeftThumb.getHalfWidth();
-        final float barLength = w - 2 * marginLeft;
-        mBar = new SlidingBar(ctx, marginLeft, yPos, barLength, mTickCount, mTickHeightDP, mBarWeight, mBarColor);
-        mBar.setTimerSeekBar(this);
-        // Initialize thumbs to the desired indices
-        mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
-        mRightThumb.setX(marginLeft + (mRightIndex / (float) (mTickCount - 1)) * barLength);
-
-        // Set the thumb indices.
-        final int newLeftIndex = mBar.getNearestTickIndex(mLeftThumb);
-        final int newRightIndex = mBar.getNearestTickIndex(mRightThumb);
+            final Context ctx = getContext();
+
+            // This is the initial point at which we know the size of the View.
+
+            // Create the two thumb objects.
+            final float yPos = h / 2f;
+            final ThumbImages images = obtainThumbImages(mThumbImageNormal, mThumbImagePressed);
+            mLeftThumb = new SlidingThumb(ctx,
+                                   yPos,
+                                   mThumbColorNormal,
+                                   mThumbColorPressed,
+                                   mThumbRadiusDP,
+                                   images);
+            mRightThumb = new SlidingThumb(ctx,
+                                    yPos,
+                                    mThumbColorNormal,
+                                    mThumbColorPressed,
+                                    mThumbRadiusDP,
+                                    images);
+
+            // Create the underlying bar.
+            final float marginLeft = mLeftThumb.getHalfWidth();
+            final float barLength = w - 2 * marginLeft;
+            mBar = new SlidingBar(ctx, marginLeft, yPos, barLength, mTickCount, mTickHeightDP, mBarWeight, mBarColor);
+            // Initialize thumbs to the desired indices
+            mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
+            mRightThumb.setX(marginLeft + (mRightIndex / (float) (mTickCount - 1)) * barLength);
+
+            // Set the thumb indices.
+            final int newLeftIndex = mBar.getNearestTickIndex(mLeftThumb);
+            final int newRightIndex = mBar.getNearestTickIndex(mRightThumb);
 
-        // Call the listener.
-        if (newLeftIndex != mLeftIndex || newRightIndex != mRightIndex) {
-            mLeftIndex = newLeftIndex;
-            mRightIndex = newRightIndex;
+            // Call the listener.
+            if (newLeftIndex != mLeftIndex || newRightIndex != mRightIndex) {
+                mLeftIndex = newLeftIndex;
+                mRightIndex = newRightIndex;
 
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
+                dispatchIndexChange(mLeftIndex, mRightIndex);
+            }
+
+            // Create the line connecting the two thumbs.
+            mConnectingLine = new ConnectingLine(ctx, yPos, mConnectingLineWeight, mConnectingLineColor);
+            layoutScale(marginLeft, barLength);
+            layoutLayers(marginLeft, barLength);
+
+            if (mViewport != null) {
+                mViewport.setBounds(marginLeft, barLength);
+                placeValueThumbs(false);
             }
-        }
 
-        // Create the line connecting the two thumbs.
-        mConnectingLine = new ConnectingLine(ctx, yPos, mConnectingLineWeight, mConnectingLineColor);
+            applyQuality();
+            layoutTickLabels();
+        } finally {
+            SeekBarTrace.endSection();
+        }
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_DRAW);
+        // In low latency mode the dragged thumb is drawn at its predicted
+        // position for this frame only; the indices use the actual one, which
+        // is restored even if drawing throws.
+        SlidingThumb dragged = null;
+        float actualX = 0;
+        try {
+            super.onDraw(canvas);
+
+            dragged = mLeftThumb.isPressed() ? mLeftThumb
+                    : (mRightThumb.isPressed() ? mRightThumb : null);
+            if (dragged != null) {
+                actualX = dragged.getX();
+                dragged.setX(getPredictedThumbX(actualX, mBar.getLeftX(), mBar.getRightX()));
+            }
+
+            if (mViewport == null) {
+                drawLayers(canvas, mLeftIndex, mRightIndex, mLeftThumb.getX(), mRightThumb.getX());
+            }
 
-        super.onDraw(canvas);
+            int count;
+            if (mViewport != null) {
+                count = mBar.drawViewport(canvas, mViewport, mMinTickSpacingPx, mLeftValue, mRightValue);
+            } else {
+                count = mBar.draw(canvas, mLeftIndex, mRightIndex);
+            }
 
-        mBar.draw(canvas);
+            count += mConnectingLine.draw(canvas, mLeftThumb, mRightThumb);
 
-        mConnectingLine.draw(canvas, mLeftThumb, mRightThumb);
+            count += mLeftThumb.draw(canvas);
+            count += mRightThumb.draw(canvas);
+            countDrawCalls(count);
 
-        mLeftThumb.draw(canvas);
-        mRightThumb.draw(canvas);
+            if (mViewport == null && mLabels.getAdapter() != null) {
+                drawLabels(canvas);
+            }
+        } finally {
+            if (dragged != null) {
+                dragged.setX(actualX);
+            }
+            SeekBarTrace.endSection();
+        }
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_TOUCH);
+        try {
+            // If this View is not enabled, don't allow for touch interactions.
+            if (!isEnabled()) {
+                return false;
+            }
+            if (mViewport != null) {
+                return onViewportTouchEvent(event);
+            }
 
-        // If this View is not enabled, don't allow for touch interactions.
-        if (!isEnabled()) {
-            return false;
-        }
-
-        switch (event.getAction()) {
+            switch (event.getAction()) {
 
-            case MotionEvent.ACTION_DOWN:
-                onActionDown(event.getX(), event.getY());
-                return true;
+                case MotionEvent.ACTION_DOWN:
+                    onActionDown(event.getX(), event.getY());
+                    if (mLeftThumb.isPressed() || mRightThumb.isPressed()) {
+                        requestLowLatencyInput(event);
+                    }
+                    return true;
 
-            case MotionEvent.ACTION_UP:
-            case MotionEvent.ACTION_CANCEL:
-                this.getParent().requestDisallowInterceptTouchEvent(false);
-                onActionUp(event.getX(), event.getY());
-                return true;
+                case MotionEvent.ACTION_UP:
+                case MotionEvent.ACTION_CANCEL:
+                    this.getParent().requestDisallowInterceptTouchEvent(false);
+                    onActionUp(event.getX(), event.getY());
+                    return true;
 
-            case MotionEvent.ACTION_MOVE:
-                onActionMove(event.getX());
-                this.getParent().requestDisallowInterceptTouchEvent(true);
-                return true;
+                case MotionEvent.ACTION_MOVE:
+                    onActionMove(event.getX());
+                    this.getParent().requestDisallowInterceptTouchEvent(true);
+                    return true;
 
-            default:
-                return false;
+                default:
+                    return false;
+            }
+        } finally {
+            SeekBarTrace.endSection();
         }
     }
 
@@ -224,9 +328,7 @@ public class SlidingSeekBar extends BaseSeekBar {
             mTickCount = tickCount;
             mLeftIndex = 0;
             mRightIndex = mTickCount - 1;
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-            }
+            dispatchIndexChange(mLeftIndex, mRightIndex);
             mThumbImageNormal = ta.getResourceId(R.styleable.SeekBar_thumbImageNormal,
                     DEFAULT_THUMB_IMAGE_NORMAL);
             mThumbImagePressed = ta.getResourceId(R.styleable.SeekBar_thumbImagePressed,
@@ -252,17 +354,14 @@ public class SlidingSeekBar extends BaseSeekBar {
                 mLeftIndex = 0;
                 mRightIndex = mTickCount - 1;
 
-                if (mListener != null) {
-                    mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-                }
+                dispatchIndexChange(mLeftIndex, mRightIndex);
             }
             if (indexOutOfRange(mLeftIndex, mRightIndex))
             {
                 mLeftIndex = 0;
                 mRightIndex = mTickCount - 1;
 
-                if (mListener != null)
-                    mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
+                dispatchIndexChange(mLeftIndex, mRightIndex);
             }
 
             createBar();
@@ -362,6 +461,29 @@ public class SlidingSeekBar extends BaseSeekBar {
         createThumbs();
     }
 
+    /**
+     * Sets the size the thumb images are decoded and drawn at, so large
+     * resources are not kept in memory at full resolution.
+     *
+     * @param thumbImageSize Float specifying the longest side of the thumb
+     *            images in px; -1 to use the density-scaled resource size.
+     */
+    public void setThumbImageSize(float thumbImageSize) {
+        mThumbImageSizePx = thumbImageSize;
+        createThumbs();
+    }
+
+    /**
+     * If this is set, opaque thumb images are decoded as RGB_565, halving the
+     * memory they hold. Images with transparency are not affected.
+     *
+     * @param thumbImageOpaque boolean whether to prefer RGB_565 for the images.
+     */
+    public void setThumbImageOpaque(boolean thumbImageOpaque) {
+        mThumbImageOpaque = thumbImageOpaque;
+        createThumbs();
+    }
+
     /**
      * If this is set, the thumb images will be replaced with a circle. The
      * normal image will be of the specified color.
@@ -394,9 +516,14 @@ public class SlidingSeekBar extends BaseSeekBar {
      *
      * @param leftThumbIndex Integer specifying the index of the left thumb
      * @param rightThumbIndex Integer specifying the index of the right thumb
+     * @throws IllegalStateException in viewport mode; use
+     *             {@link #setThumbValues(long, long)} there
      */
     public void setThumbIndices(int leftThumbIndex, int rightThumbIndex)
     {
+        if (mViewport != null) {
+            throw new IllegalStateException("In viewport mode, use setThumbValues instead");
+        }
         if (indexOutOfRange(leftThumbIndex, rightThumbIndex)) {
 
             throw new IllegalArgumentException("A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
@@ -408,17 +535,105 @@ public class SlidingSeekBar extends BaseSeekBar {
 
             mLeftIndex = leftThumbIndex;
             mRightIndex = rightThumbIndex;
-            createThumbs();
-
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
+            if (isThumbAnimationEnabled() && mBar != null) {
+                // Glide the existing thumbs over instead of replacing them.
+                moveIndexThumb(mLeftThumb, mLeftIndex);
+                moveIndexThumb(mRightThumb, mRightIndex);
+            } else {
+                createThumbs();
             }
+
+            dispatchIndexChange(mLeftIndex, mRightIndex);
         }
 
         invalidate();
         requestLayout();
     }
 
+    @Override
+    protected boolean canApplyIndices() {
+        return mViewport == null;
+    }
+
+    @Override
+    protected void applyIndices(int leftThumbIndex, int rightThumbIndex, boolean notify) {
+        if (mViewport != null) {
+            throw new IllegalStateException("In viewport mode, use setThumbValues instead");
+        }
+        final int lastIndex = mTickCount - 1;
+        final int oldLeftIndex = mLeftIndex;
+        final int oldRightIndex = mRightIndex;
+        mLeftIndex = Math.max(0, Math.min(leftThumbIndex, lastIndex));
+        mRightIndex = Math.max(mLeftIndex, Math.min(rightThumbIndex, lastIndex));
+        mFirstSetTickCount = false;
+
+        // Before the first layout the thumbs are placed in onSizeChanged.
+        if (mBar != null) {
+            moveIndexThumb(mLeftThumb, mLeftIndex);
+            moveIndexThumb(mRightThumb, mRightIndex);
+        }
+
+        if (notify && (mLeftIndex != oldLeftIndex || mRightIndex != oldRightIndex)) {
+            dispatchIndexChange(mLeftIndex, mRightIndex);
+        }
+    }
+
+    /**
+     * Sets the adapter supplying the labels drawn above the thumbs. Labels are
+     * requested and measured only when a thumb lands on an index that is not
+     * cached.
+     *
+     * @param adapter the label adapter; null to draw no labels
+     */
+    public void setLabelAdapter(LabelAdapter adapter) {
+        if (mLabelPaint == null) {
+            mLabelPaint = new Paint();
+            mLabelPaint.setColor(DEFAULT_LABEL_TEXT_COLOR);
+            mLabelPaint.setAntiAlias(true);
+            mLabelPaint.setTextSize(sp2px(DEFAULT_LABEL_TEXT_SIZE_SP));
+            mLabelMarginPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, LABEL_MARGIN_DP,
+                    getResources().getDisplayMetrics());
+        }
+        mLabels.setAdapter(adapter);
+        resetLabels();
+        invalidate();
+    }
+
+    /**
+     * Sets the text size of the thumb labels.
+     *
+     * @param labelTextSize Float specifying the text size in sp.
+     */
+    public void setLabelTextSize(float labelTextSize) {
+        if (mLabelPaint != null) {
+            mLabelPaint.setTextSize(sp2px(labelTextSize));
+            resetLabels();
+            invalidate();
+        }
+    }
+
+    /**
+     * Sets the text color of the thumb labels.
+     *
+     * @param labelTextColor Integer specifying the text color.
+     */
+    public void setLabelTextColor(int labelTextColor) {
+        if (mLabelPaint != null) {
+            mLabelPaint.setColor(labelTextColor);
+            invalidate();
+        }
+    }
+
+    /**
+     * Drops the cached labels so they are requested from the adapter again,
+     * e.g. after the data behind it changed.
+     */
+    public void notifyLabelsChanged() {
+        mLabels.clear();
+        resetLabels();
+        invalidate();
+    }
+
     /**
      * Gets the index of the left-most thumb.
      * 
@@ -430,31 +645,244 @@ public class SlidingSeekBar extends BaseSeekBar {
     public int getRightIndex(){
         return mRightIndex;
     }
+
+    /**
+     * Switches the bar to viewport mode: instead of mTickCount ticks across
+     * its width, the bar shows a window of a long domain, e.g. epoch millis,
+     * with a tick every tickInterval. The window can be pinch-zoomed and
+     * panned by dragging outside the thumbs, and only the ticks inside it are
+     * drawn. The thumbs keep their values across zoom levels; values are
+     * reported to the {@link OnRangeValueChangeListener} instead of indices.
+     * The window starts out showing the whole domain, with the thumbs at its
+     * ends. A bar in viewport mode cannot be moved by index, so it cannot be
+     * in a {@link com.seekbar.RangeGroup}.
+     *
+     * @param domainStart the smallest value
+     * @param domainEnd the largest value
+     * @param tickInterval the distance between two ticks
+     * @throws IllegalStateException if the bar is in a RangeGroup
+     */
+    public void setViewport(long domainStart, long domainEnd, long tickInterval) {
+        if (getRangeGroup() != null) {
+            throw new IllegalStateException("A bar in a RangeGroup cannot switch to viewport mode");
+        }
+        mViewport = new Viewport(domainStart, domainEnd, tickInterval);
+        mLeftValue = domainStart;
+        mRightValue = domainEnd;
+        if (mScaleDetector == null) {
+            mScaleDetector = new ScaleGestureDetector(getContext(),
+                    new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+                        @Override
+                        public boolean onScale(ScaleGestureDetector detector) {
+                            mViewport.zoom(detector.getFocusX(), detector.getScaleFactor());
+                            placeValueThumbs(false);
+                            invalidate();
+                            return true;
+                        }
+                    });
+            mTouchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+            mMinTickSpacingPx = SlidingBar.dp2px(getContext(), MIN_VIEWPORT_TICK_SPACING_DP);
+        }
+        if (mBar != null) {
+            mViewport.setBounds(getMarginLeft(), getBarLength());
+            placeValueThumbs(false);
+        }
+        invalidate();
+    }
+
+    /**
+     * Leaves viewport mode; the thumbs go back to their indices.
+     */
+    public void clearViewport() {
+        if (mViewport == null) {
+            return;
+        }
+        mViewport = null;
+        if (mBar != null) {
+            createThumbs();
+        }
+        invalidate();
+    }
+
+    /**
+     * Gets the viewport of the bar.
+     *
+     * @return the viewport; null unless in viewport mode
+     */
+    public Viewport getViewport() {
+        return mViewport;
+    }
+
+    /**
+     * Shows the given part of the domain in viewport mode.
+     *
+     * @param viewStart the first value shown
+     * @param viewEnd the last value shown
+     */
+    public void setVisibleRange(long viewStart, long viewEnd) {
+        checkViewport();
+        mViewport.setVisibleRange(viewStart, viewEnd);
+        placeValueThumbs(false);
+        invalidate();
+    }
+
+    /**
+     * Moves the thumbs to the ticks nearest to the given values in viewport
+     * mode. Values outside the window are kept; their thumbs wait at the edge
+     * of the bar.
+     *
+     * @param leftValue value of the left thumb
+     * @param rightValue value of the right thumb
+     */
+    public void setThumbValues(long leftValue, long rightValue) {
+        checkViewport();
+        if (leftValue > rightValue) {
+            throw new IllegalArgumentException("leftValue must not be greater than rightValue");
+        }
+        updateValues(mViewport.snap(leftValue), mViewport.snap(rightValue));
+        placeValueThumbs(true);
+        invalidate();
+    }
+
+    public long getLeftValue() {
+        return mLeftValue;
+    }
+
+    public long getRightValue() {
+        return mRightValue;
+    }
+
+    /**
+     * Sets a listener to receive the thumb values in viewport mode.
+     *
+     * @param listener the listener; null to remove it
+     */
+    public void setOnRangeValueChangeListener(OnRangeValueChangeListener listener) {
+        mValueListener = listener;
+    }
     /**
      * Gets the index of the right-most thumb.
      * 
      * @return the 0-based index of the right thumb
      */
 
+    @Override
+    protected void releaseResources() {
+        super.releaseResources();
+        mLabels.clear();
+        resetLabels();
+    }
+
     // Private Methods /////////////////////////////////////////////////////////
 
+    /**
+     * Draws the labels of both thumbs above them, looking a label up only
+     * when the thumb's index changed since the last draw.
+     */
+    private void drawLabels(Canvas canvas) {
+        if (mLeftLabelIndex != mLeftIndex) {
+            mLeftLabel = mLabels.get(mLeftIndex, mLabelPaint);
+            mLeftLabelIndex = mLeftIndex;
+        }
+        if (mRightLabelIndex != mRightIndex) {
+            mRightLabel = mLabels.get(mRightIndex, mLabelPaint);
+            mRightLabelIndex = mRightIndex;
+        }
 
+        final float y = getYPos() - mLeftThumb.getHalfHeight() - mLabelMarginPx;
+        if (drawsLeftLabel()) {
+            canvas.drawText(mLeftLabel.text, mLeftThumb.getX() - mLeftLabel.width / 2f, y, mLabelPaint);
+            countDrawCalls(1);
+        }
+        if (drawsRightLabel()) {
+            canvas.drawText(mRightLabel.text, mRightThumb.getX() - mRightLabel.width / 2f, y, mLabelPaint);
+            countDrawCalls(1);
+        }
+    }
+
+    // At the lowest quality only the label of the dragged thumb is drawn.
+    private boolean drawsLeftLabel() {
+        return mLeftLabel != null
+                && (mQuality < QUALITY_PRIMARY_LABEL_ONLY || !mRightThumb.isPressed());
+    }
+
+    private boolean drawsRightLabel() {
+        return mRightLabel != null && mRightIndex != mLeftIndex
+                && (mQuality < QUALITY_PRIMARY_LABEL_ONLY || !mLeftThumb.isPressed());
+    }
+
+    private void resetLabels() {
+        mLeftLabel = null;
+        mRightLabel = null;
+        mLeftLabelIndex = -1;
+        mRightLabelIndex = -1;
+    }
+
+    private float sp2px(float sp) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, sp, getResources().getDisplayMetrics());
+    }
 
     /**
      * Creates a new mBar
      * 
      */
     private void createBar() {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_CREATE_BAR);
+        try {
+            if (mMetrics != null) {
+                mMetrics.increment(SeekBarMetrics.COUNTER_BAR_REBUILDS);
+            }
 
-        mBar = new SlidingBar(getContext(),
-                       getMarginLeft(),
-                       getYPos(),
-                       getBarLength(),
-                       mTickCount,
-                       mTickHeightDP,
-                       mBarWeight,
-                       mBarColor);
-        invalidate();
+            mBar = new SlidingBar(getContext(),
+                           getMarginLeft(),
+                           getYPos(),
+                           getBarLength(),
+                           mTickCount,
+                           mTickHeightDP,
+                           mBarWeight,
+                           mBarColor);
+            applyQuality();
+            layoutTickLabels();
+            layoutLayers(getMarginLeft(), getBarLength());
+            invalidate();
+        } finally {
+            SeekBarTrace.endSection();
+        }
+    }
+
+    @Override
+    protected void onQualityChanged(int quality) {
+        applyQuality();
+    }
+
+    /**
+     * Applies the current rendering quality to the bar and connecting line.
+     */
+    private void applyQuality() {
+        final boolean antiAlias = mQuality < QUALITY_NO_ANTI_ALIAS;
+        if (mBar != null) {
+            mBar.setAntiAlias(antiAlias);
+            mBar.setDecimateTicks(mQuality >= QUALITY_DECIMATED_TICKS);
+        }
+        if (mConnectingLine != null) {
+            mConnectingLine.setAntiAlias(antiAlias);
+        }
+    }
+
+    @Override
+    protected void onTickLabelsChanged() {
+        layoutTickLabels();
+        super.onTickLabelsChanged();
+    }
+
+    /**
+     * Lays the tick labels out for the current bar.
+     */
+    private void layoutTickLabels() {
+        if (mBar != null && mLeftThumb != null) {
+            mBar.setTickLabels(createTickLabelLayout(mBar.getLeftX(), mBar.getTickDistance(),
+                    mLeftThumb.getHalfHeight()));
+        }
     }
 
     /**
@@ -467,6 +895,7 @@ public class SlidingSeekBar extends BaseSeekBar {
                                              getYPos(),
                                              mConnectingLineWeight,
                                              mConnectingLineColor);
+        applyQuality();
         invalidate();
     }
 
@@ -474,33 +903,44 @@ public class SlidingSeekBar extends BaseSeekBar {
      * Creates two new Thumbs.
      */
     private void createThumbs() {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_CREATE_THUMBS);
+        try {
+            if (mMetrics != null) {
+                mMetrics.increment(SeekBarMetrics.COUNTER_THUMB_REBUILDS);
+            }
+            cancelThumbAnimations();
+
+            Context ctx = getContext();
+            float yPos = getYPos();
+            ThumbImages images = obtainThumbImages(mThumbImageNormal, mThumbImagePressed);
+
+            mLeftThumb = new SlidingThumb(ctx,
+                                   yPos,
+                                   mThumbColorNormal,
+                                   mThumbColorPressed,
+                                   mThumbRadiusDP,
+                                   images);
+            mRightThumb = new SlidingThumb(ctx,
+                                    yPos,
+                                    mThumbColorNormal,
+                                    mThumbColorPressed,
+                                    mThumbRadiusDP,
+                                    images);
+
+            float marginLeft = getMarginLeft();
+            float barLength = getBarLength();
+
+            // Initialize thumbs to the desired indices
+            mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
+            mRightThumb.setX(marginLeft + (mRightIndex / (float) (mTickCount - 1)) * barLength);
+            if (mViewport != null && mBar != null) {
+                placeValueThumbs(false);
+            }
 
-        Context ctx = getContext();
-        float yPos = getYPos();
-
-        mLeftThumb = new SlidingThumb(ctx,
-                               yPos,
-                               mThumbColorNormal,
-                               mThumbColorPressed,
-                               mThumbRadiusDP,
-                               mThumbImageNormal,
-                               mThumbImagePressed);
-        mRightThumb = new SlidingThumb(ctx,
-                                yPos,
-                                mThumbColorNormal,
-                                mThumbColorPressed,
-                                mThumbRadiusDP,
-                                mThumbImageNormal,
-                                mThumbImagePressed);
-
-        float marginLeft = getMarginLeft();
-        float barLength = getBarLength();
-
-        // Initialize thumbs to the desired indices
-        mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
-        mRightThumb.setX(marginLeft + (mRightIndex / (float) (mTickCount - 1)) * barLength);
-
-        invalidate();
+            invalidate();
+        } finally {
+            SeekBarTrace.endSection();
+        }
     }
 
     /**
@@ -521,6 +961,17 @@ public class SlidingSeekBar extends BaseSeekBar {
         return (getWidth() - 2 * getMarginLeft());
     }
 
+    /**
+     * Moves a thumb to the tick of an index set programmatically. A pressed
+     * thumb stays under the finger and snaps to its own tick on release.
+     */
+    private void moveIndexThumb(SlidingThumb thumb, int index) {
+        if (thumb.isPressed()) {
+            return;
+        }
+        moveThumbTo(thumb, getMarginLeft() + (index / (float) (mTickCount - 1)) * getBarLength());
+    }
+
     /**
      * Returns if either index is outside the range of the tickCount.
      * 
@@ -533,6 +984,146 @@ public class SlidingSeekBar extends BaseSeekBar {
                 || rightThumbIndex >= mTickCount);
     }
 
+    private void checkViewport() {
+        if (mViewport == null) {
+            throw new IllegalStateException("Not in viewport mode, call setViewport first");
+        }
+    }
+
+    /**
+     * Places the thumbs at their values, at the edge of the bar for values
+     * outside the window. A pressed thumb stays under the finger.
+     *
+     * @param animate true to glide the thumbs there if thumb animation is on
+     */
+    private void placeValueThumbs(boolean animate) {
+        placeValueThumb(mLeftThumb, mLeftValue, animate);
+        placeValueThumb(mRightThumb, mRightValue, animate);
+    }
+
+    private void placeValueThumb(SlidingThumb thumb, long value, boolean animate) {
+        if (thumb.isPressed()) {
+            return;
+        }
+        final float x = Math.max(mBar.getLeftX(), Math.min(mViewport.valueToX(value), mBar.getRightX()));
+        if (animate) {
+            moveThumbTo(thumb, x);
+        } else {
+            cancelThumbAnimations();
+            thumb.setX(x);
+        }
+    }
+
+    private void updateValues(long leftValue, long rightValue) {
+        if (leftValue == mLeftValue && rightValue == mRightValue) {
+            return;
+        }
+        mLeftValue = leftValue;
+        mRightValue = rightValue;
+        dispatchValueChange(mLeftValue, mRightValue);
+    }
+
+    /**
+     * Handles touches in viewport mode: a thumb is dragged from tick to tick,
+     * a drag elsewhere pans the window, a pinch zooms it and a tap moves the
+     * nearest thumb.
+     */
+    private boolean onViewportTouchEvent(MotionEvent event) {
+        mScaleDetector.onTouchEvent(event);
+        final float x = event.getX();
+        final boolean thumbPressed = mLeftThumb.isPressed() || mRightThumb.isPressed();
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = x;
+                mLastPanX = x;
+                mPanning = false;
+                mScaling = false;
+                onActionDown(x, event.getY());
+                if (mLeftThumb.isPressed() || mRightThumb.isPressed()) {
+                    requestLowLatencyInput(event);
+                }
+                return true;
+
+            case MotionEvent.ACTION_POINTER_DOWN:
+                // A second finger starts a pinch and lets go of the thumb.
+                mScaling = true;
+                if (thumbPressed) {
+                    releaseValueThumb();
+                }
+                return true;
+
+            case MotionEvent.ACTION_MOVE:
+                getParent().requestDisallowInterceptTouchEvent(true);
+                if (mScaling) {
+                    return true;
+                }
+                if (thumbPressed) {
+                    moveValueThumb(x);
+                } else {
+                    if (!mPanning && Math.abs(x - mDownX) > mTouchSlop) {
+                        mPanning = true;
+                        mLastPanX = x;
+                    }
+                    if (mPanning) {
+                        mViewport.pan(x - mLastPanX);
+                        mLastPanX = x;
+                        placeValueThumbs(false);
+                        invalidate();
+                    }
+                }
+                return true;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                getParent().requestDisallowInterceptTouchEvent(false);
+                if (thumbPressed) {
+                    releaseValueThumb();
+                } else if (!mPanning && !mScaling && event.getActionMasked() == MotionEvent.ACTION_UP) {
+                    tapValue(x);
+                }
+                return true;
+
+            default:
+                return true;
+        }
+    }
+
+    private void moveValueThumb(float x) {
+        final SlidingThumb thumb = mLeftThumb.isPressed() ? mLeftThumb : mRightThumb;
+        final long otherValue = (thumb == mLeftThumb) ? mRightValue : mLeftValue;
+
+        thumb.setX(Math.max(mBar.getLeftX(), Math.min(x, mBar.getRightX())));
+        // If the thumbs have switched order, fix the references.
+        if (mLeftThumb.getX() > mRightThumb.getX()) {
+            final SlidingThumb temp = mLeftThumb;
+            mLeftThumb = mRightThumb;
+            mRightThumb = temp;
+        }
+
+        final long value = mViewport.snap(mViewport.xToValue(thumb.getX()));
+        updateValues(Math.min(value, otherValue), Math.max(value, otherValue));
+        invalidate();
+    }
+
+    private void releaseValueThumb() {
+        final SlidingThumb thumb = mLeftThumb.isPressed() ? mLeftThumb : mRightThumb;
+        thumb.release();
+        placeValueThumb(thumb, (thumb == mLeftThumb) ? mLeftValue : mRightValue, true);
+        invalidate();
+    }
+
+    private void tapValue(float x) {
+        final long value = mViewport.snap(mViewport.xToValue(x));
+        if (Math.abs(mLeftThumb.getX() - x) < Math.abs(mRightThumb.getX() - x)) {
+            updateValues(Math.min(value, mRightValue), Math.max(value, mRightValue));
+        } else {
+            updateValues(Math.min(value, mLeftValue), Math.max(value, mLeftValue));
+        }
+        placeValueThumbs(true);
+        invalidate();
+    }
+
     /**
      * Handles a {@link MotionEvent#ACTION_DOWN} event.
      * 
@@ -591,9 +1182,7 @@ public class SlidingSeekBar extends BaseSeekBar {
                 mLeftIndex = newLeftIndex;
                 mRightIndex = newRightIndex;
 
-                if (mListener != null) {
-                    mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-                }
+                dispatchIndexChange(mLeftIndex, mRightIndex);
             }
         }
     }
@@ -629,9 +1218,33 @@ public class SlidingSeekBar extends BaseSeekBar {
             mLeftIndex = newLeftIndex;
             mRightIndex = newRightIndex;
 
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-            }
+            dispatchIndexChange(mLeftIndex, mRightIndex);
+        }
+
+        if (isPredictingIndices()) {
+            predictIndices();
+        }
+    }
+
+    /**
+     * Tells the prediction listener where the pressed thumb is heading, if
+     * that is not where it is.
+     */
+    private void predictIndices() {
+        final SlidingThumb thumb = mLeftThumb.isPressed() ? mLeftThumb
+                : (mRightThumb.isPressed() ? mRightThumb : null);
+        if (thumb == null) {
+            return;
+        }
+        final float settleX = Math.max(mBar.getLeftX(), Math.min(getSettleX(thumb.getX()), mBar.getRightX()));
+        final int index = mBar.getNearestTickIndex(settleX);
+
+        // The pressed thumb may be heading past the other one.
+        final int otherIndex = (thumb == mLeftThumb) ? mRightIndex : mLeftIndex;
+        final int leftIndex = Math.min(index, otherIndex);
+        final int rightIndex = Math.max(index, otherIndex);
+        if (leftIndex != mLeftIndex || rightIndex != mRightIndex) {
+            dispatchIndexPrediction(leftIndex, rightIndex);
         }
     }
 
@@ -644,6 +1257,7 @@ public class SlidingSeekBar extends BaseSeekBar {
     private void pressThumb(SlidingThumb thumb) {
         if (mFirstSetTickCount)
             mFirstSetTickCount = false;
+        finishThumbAnimations();
         thumb.press();
         invalidate();
     }
@@ -657,7 +1271,7 @@ public class SlidingSeekBar extends BaseSeekBar {
     private void releaseThumb(SlidingThumb thumb) {
 
         final float nearestTickX = mBar.getNearestTickCoordinate(thumb);
-        thumb.setX(nearestTickX);
+        moveThumbTo(thumb, nearestTickX);
         thumb.release();
         invalidate();
     }
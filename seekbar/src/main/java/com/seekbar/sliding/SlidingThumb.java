@@ -16,12 +16,12 @@ package com.seekbar.sliding;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.TypedValue;
 
 import com.seekbar.BaseThumb;
+import com.seekbar.ThumbImages;
 
 /**
  * Represents a thumb in the RangeBar slider. This is the handle for the slider
@@ -49,9 +49,9 @@ class SlidingThumb extends BaseThumb {
     // Radius (in pixels) of the touch area of the thumb.
     private final float mTargetRadiusPx;
 
-    // The normal and pressed images to display for the thumbs.
-    private final Bitmap mImageNormal;
-    private final Bitmap mImagePressed;
+    // The normal and pressed images to display for the thumbs, shared with the
+    // other thumb of the bar.
+    private final ThumbImages mImages;
 
     // Variables to store half the width/height for easier calculation.
     private final float mHalfWidthNormal;
@@ -90,19 +90,27 @@ class SlidingThumb extends BaseThumb {
                  int thumbColorNormal,
                  int thumbColorPressed,
                  float thumbRadiusDP,
-                 int thumbImageNormal,
-                 int thumbImagePressed) {
+                 ThumbImages images) {
 
         final Resources res = ctx.getResources();
 
-        mImageNormal = BitmapFactory.decodeResource(res, thumbImageNormal);
-        mImagePressed = BitmapFactory.decodeResource(res, thumbImagePressed);
+        mImages = images;
+
+        mHalfWidthNormal = images.getNormalWidth() / 2f;
+        mHalfHeightNormal = images.getNormalHeight() / 2f;
+
+        mHalfWidthPressed = images.getPressedWidth() / 2f;
+        mHalfHeightPressed = images.getPressedHeight() / 2f;
 
         // If any of the attributes are set, toggle bitmap off
         if (thumbRadiusDP == -1 && thumbColorNormal == -1 && thumbColorPressed == -1) {
 
             mUseBitmap = true;
 
+            // The circle stands in for the images while they are not decoded,
+            // so it takes their size.
+            mThumbRadiusPx = Math.min(mHalfWidthNormal, mHalfHeightNormal);
+
         } else {
 
             mUseBitmap = false;
@@ -117,32 +125,26 @@ class SlidingThumb extends BaseThumb {
                 mThumbRadiusPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
                                                            thumbRadiusDP,
                                                            res.getDisplayMetrics());
+        }
 
-            if (thumbColorNormal == -1)
-                mThumbColorNormal = DEFAULT_THUMB_COLOR_NORMAL;
-            else
-                mThumbColorNormal = thumbColorNormal;
-
-            if (thumbColorPressed == -1)
-                mThumbColorPressed = DEFAULT_THUMB_COLOR_PRESSED;
-            else
-                mThumbColorPressed = thumbColorPressed;
+        if (thumbColorNormal == -1)
+            mThumbColorNormal = DEFAULT_THUMB_COLOR_NORMAL;
+        else
+            mThumbColorNormal = thumbColorNormal;
 
-            // Creates the paint and sets the Paint values
-            mPaintNormal = new Paint();
-            mPaintNormal.setColor(mThumbColorNormal);
-            mPaintNormal.setAntiAlias(true);
+        if (thumbColorPressed == -1)
+            mThumbColorPressed = DEFAULT_THUMB_COLOR_PRESSED;
+        else
+            mThumbColorPressed = thumbColorPressed;
 
-            mPaintPressed = new Paint();
-            mPaintPressed.setColor(mThumbColorPressed);
-            mPaintPressed.setAntiAlias(true);
-        }
+        // Creates the paint and sets the Paint values
+        mPaintNormal = new Paint();
+        mPaintNormal.setColor(mThumbColorNormal);
+        mPaintNormal.setAntiAlias(true);
 
-        mHalfWidthNormal = mImageNormal.getWidth() / 2f;
-        mHalfHeightNormal = mImageNormal.getHeight() / 2f;
-
-        mHalfWidthPressed = mImagePressed.getWidth() / 2f;
-        mHalfHeightPressed = mImagePressed.getHeight() / 2f;
+        mPaintPressed = new Paint();
+        mPaintPressed.setColor(mThumbColorPressed);
+        mPaintPressed.setAntiAlias(true);
 
         // Sets the minimum touchable area, but allows it to expand based on
         // image size
@@ -166,7 +168,8 @@ class SlidingThumb extends BaseThumb {
         return mHalfHeightNormal;
     }
 
-    void setX(float x) {
+    @Override
+    public void setX(float x) {
         mX = x;
     }
 
@@ -209,13 +212,15 @@ class SlidingThumb extends BaseThumb {
      * 
      * @param canvas Canvas to draw on; should be the Canvas passed into {#link
      *            View#onDraw()}
+     * @return the number of canvas calls issued
      */
-    void draw(Canvas canvas) {
+    int draw(Canvas canvas) {
 
         // If a bitmap is to be printed. Determined by thumbRadius attribute.
-        if (mUseBitmap) {
+        // Until the images are decoded the circle is drawn in their place.
+        if (mUseBitmap && mImages.hasBitmaps()) {
 
-            final Bitmap bitmap = (mIsPressed) ? mImagePressed : mImageNormal;
+            final Bitmap bitmap = (mIsPressed) ? mImages.getImagePressed() : mImages.getImageNormal();
 
             if (mIsPressed) {
                 final float topPressed = mY - mHalfHeightPressed;
@@ -234,5 +239,6 @@ class SlidingThumb extends BaseThumb {
             else
                 canvas.drawCircle(mX, mY, mThumbRadiusPx, mPaintNormal);
         }
+        return 1;
     }
 }
@@ -0,0 +1,18 @@
+package com.seekbar.sliding.listener;
+
+import com.seekbar.BaseSeekBar;
+
+/**
+ * Told where a thumb being dragged fast is likely to come to rest, before it
+ * gets there, so the result for those indices can be prepared ahead.
+ */
+public interface OnIndexPredictionListener {
+    /**
+     * @param rangeBar the bar being dragged
+     * @param leftThumbIndex predicted index of the left thumb
+     * @param rightThumbIndex predicted index of the right thumb; -1 for single
+     *            thumb bars
+     * @param confidence how steady the drag was, from 0 to 1
+     */
+    void onIndexPredicted(BaseSeekBar rangeBar, int leftThumbIndex, int rightThumbIndex, float confidence);
+}
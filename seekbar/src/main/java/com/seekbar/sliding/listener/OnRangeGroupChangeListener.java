@@ -0,0 +1,19 @@
+package com.seekbar.sliding.listener;
+
+import com.seekbar.BaseSeekBar;
+import com.seekbar.RangeGroup;
+
+/**
+ * Receives each change of the range shared by a {@link RangeGroup}, once per
+ * change no matter how many bars are in the group.
+ */
+public interface OnRangeGroupChangeListener {
+    /**
+     * @param group the group whose range changed
+     * @param source the bar the change was made on; null if it was set on the
+     *            group
+     * @param leftIndex the new left index
+     * @param rightIndex the new right index
+     */
+    void onRangeChanged(RangeGroup group, BaseSeekBar source, int leftIndex, int rightIndex);
+}
@@ -0,0 +1,11 @@
+package com.seekbar.sliding.listener;
+
+import com.seekbar.BaseSeekBar;
+
+/**
+ * Receives the thumb values of a bar in viewport mode, see
+ * {@link com.seekbar.sliding.SlidingSeekBar#setViewport(long, long, long)}.
+ */
+public interface OnRangeValueChangeListener {
+    void onValueChangeListener(BaseSeekBar rangeBar, long leftValue, long rightValue);
+}
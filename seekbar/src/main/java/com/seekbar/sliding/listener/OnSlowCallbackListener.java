@@ -0,0 +1,19 @@
+package com.seekbar.sliding.listener;
+
+import com.seekbar.BaseSeekBar;
+
+/**
+ * Receives the index change callbacks that took longer than the budget of a
+ * {@link com.seekbar.ListenerWatchdog}.
+ */
+public interface OnSlowCallbackListener {
+    /**
+     * @param rangeBar the bar that called the listener
+     * @param listener the listener that was slow
+     * @param durationNanos how long the callback took
+     * @param stack the UI thread stack captured when the budget ran out, i.e.
+     *            inside the listener; null if the callback returned first
+     */
+    void onSlowCallback(BaseSeekBar rangeBar, OnRangeBarChangeListener listener, long durationNanos,
+                        StackTraceElement[] stack);
+}
@@ -18,6 +18,8 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.TypedValue;
 
+import com.seekbar.TickLabelLayout;
+
 
 /**
  * This class represents the underlying gray bar in the RangeBar (without the
@@ -27,6 +29,8 @@ class TextBar {
 
     // Member Variables ////////////////////////////////////////////////////////
     private static final float DEFAULT_BAR_RADIUS=5;
+    // Most ticks drawn while decimating.
+    private static final int MAX_DECIMATED_TICKS = 24;
     private final Paint mPaint;
 
     // Left-coordinate of the horizontal bar.
@@ -36,6 +40,9 @@ class TextBar {
 
     private int mNumSegments;
     private float mRadius;
+    private TickLabelLayout mTickLabels;
+    // While set only every few ticks are drawn, see getTickStride().
+    private boolean mDecimateTicks;
     private float mTickDistance;
     private final float mTickHeight;
     private final float mTickStartY;
@@ -80,12 +87,51 @@ class TextBar {
      * 
      * @param canvas Canvas to draw on; should be the Canvas passed into {#link
      *            View#onDraw()}
+     * @return the number of canvas calls issued
      */
-    void draw(Canvas canvas) {
+    int draw(Canvas canvas) {
 
         canvas.drawLine(mLeftX, mY, mRightX, mY, mPaint);
 
-        drawTicks(canvas);
+        int count = 1 + drawTicks(canvas);
+        if (mTickLabels != null) {
+            count += mTickLabels.draw(canvas);
+        }
+        return count;
+    }
+
+    /**
+     * Sets whether the bar and its ticks are drawn anti-aliased.
+     */
+    void setAntiAlias(boolean antiAlias) {
+        mPaint.setAntiAlias(antiAlias);
+    }
+
+    /**
+     * Sets whether only every few ticks are drawn, so that at most about
+     * MAX_DECIMATED_TICKS remain. The first and the last tick are always
+     * drawn.
+     */
+    void setDecimateTicks(boolean decimateTicks) {
+        mDecimateTicks = decimateTicks;
+    }
+
+    /**
+     * Get the distance between two ticks.
+     *
+     * @return the tick distance in px
+     */
+    float getTickDistance() {
+        return mTickDistance;
+    }
+
+    /**
+     * Sets the tick labels drawn under the bar, laid out for this bar's ticks.
+     *
+     * @param tickLabels the label layout; null to draw no labels
+     */
+    void setTickLabels(TickLabelLayout tickLabels) {
+        mTickLabels = tickLabels;
     }
 
     /**
@@ -127,8 +173,18 @@ class TextBar {
      * @return the zero-based index of the nearest tick
      */
     int getNearestTickIndex(TextThumb thumb) {
+        return getNearestTickIndex(thumb.getX());
+    }
+
+    /**
+     * Gets the zero-based index of the nearest tick to the given x-coordinate.
+     * 
+     * @param x the x-coordinate, between the left and right edge of the bar
+     * @return the zero-based index of the nearest tick
+     */
+    int getNearestTickIndex(float x) {
 
-        final int nearestTickIndex = (int) ((thumb.getX() - mLeftX + mTickDistance / 2f) / mTickDistance);
+        final int nearestTickIndex = (int) ((x - mLeftX + mTickDistance / 2f) / mTickDistance);
 
         return nearestTickIndex;
     }
@@ -148,24 +204,36 @@ class TextBar {
 
     // Private Methods /////////////////////////////////////////////////////////
 
+    private int getTickStride() {
+        if (!mDecimateTicks) {
+            return 1;
+        }
+        return Math.max(2, (mNumSegments + MAX_DECIMATED_TICKS - 1) / MAX_DECIMATED_TICKS);
+    }
+
     /**
      * Draws the tick marks on the bar.
      * 
      * @param canvas Canvas to draw on; should be the Canvas passed into {#link
      *            View#onDraw()}
+     * @return the number of canvas calls issued
      */
-    private void drawTicks(Canvas canvas) {
+    private int drawTicks(Canvas canvas) {
         // Loop through and draw each tick (except final tick).
-        for (int i = 0; i < mNumSegments; i++) {
+        final int stride = getTickStride();
+        int count = 1;
+        for (int i = 0; i < mNumSegments; i += stride) {
             final float x = i * mTickDistance + mLeftX;
 //            canvas.drawLine(x, mTickStartY, x, mTickEndY, mPaint);
             canvas.drawCircle(x,(mTickStartY+mTickEndY)/2,mRadius,mPaint);
+            count++;
         }
         // Draw final tick. We draw the final tick outside the loop to avoid any
         // rounding discrepancies.
 //        canvas.drawLine(mRightX, mTickStartY, mRightX, mTickEndY, mPaint);
 
         canvas.drawCircle(mRightX,(mTickStartY+mTickEndY)/2,mRadius,mPaint);
+        return count;
     }
 
     /**
@@ -23,6 +23,11 @@ import android.view.MotionEvent;
 
 import com.seekbar.BaseSeekBar;
 import com.seekbar.ConnectingLine;
+import com.seekbar.LabelAdapter;
+import com.seekbar.LabelCache;
+import com.seekbar.SeekBarMetrics;
+import com.seekbar.SeekBarTrace;
+import com.seekbar.ThumbImages;
 import com.seekbar.sliding.R;
 
 
@@ -55,8 +60,14 @@ public class TextSeekBar extends BaseSeekBar {
     private ConnectingLine mConnectingLine;
 
     private String mCircleText;
+    private float mCircleTextSize = -1;
     private int mLeftIndex = 0;
 
+    // Measured labels from the label adapter, and the index the thumb's
+    // label was last resolved for
+    private final LabelCache mLabels = new LabelCache();
+    private int mLabelIndex = -1;
+
     // Constructors ////////////////////////////////////////////////////////////
 
     public TextSeekBar(Context context) {
@@ -115,95 +126,135 @@ public class TextSeekBar extends BaseSeekBar {
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_SIZE_CHANGED);
+        try {
+            super.onSizeChanged(w, h, oldw, oldh);
+            cancelThumbAnimations();
 
-        super.onSizeChanged(w, h, oldw, oldh);
-
-        final Context ctx = getContext();
-
-        // This is the initial point at which we know the size of the View.
-
-        // Create the two thumb objects.
-        final float yPos = h / 2f;
-        mLeftThumb = new TextThumb(ctx,
-                               yPos,
-                               mThumbColorNormal,
-                               mThumbColorPressed,
-                               mThumbRadiusDP,
-                               mThumbImageNormal,
-                               mThumbImagePressed);
-        mLeftThumb.setCircleText(this.mCircleText);
-        mRightThumb = new TextThumb(ctx,
-                yPos,
-                mThumbColorNormal,
-                mThumbColorPressed,
-                mThumbRadiusDP,
-                mThumbImageNormal,
-                mThumbImagePressed);
-        // Create the underlying bar.
-        final float marginLeft = mLeftThumb.getHalfWidth();
-        final float barLength = w - 2 * marginLeft;
-        mBar = new TextBar(ctx, marginLeft, yPos, barLength, mTickCount, mTickHeightDP, mBarWeight, mBarColor);
-
-        // Initialize thumbs to the desired indices
-        mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
-
-        // Set the thumb indices.
-        final int newLeftIndex = mBar.getNearestTickIndex(mLeftThumb);
+            if (mMetrics != null) {
+                mMetrics.increment(SeekBarMetrics.COUNTER_BAR_REBUILDS);
+                mMetrics.increment(SeekBarMetrics.COUNTER_THUMB_REBUILDS);
+            }
 
-        // Call the listener.
-        if (newLeftIndex != mLeftIndex ) {
+            final Context ctx = getContext();
+
+            // This is the initial point at which we know the size of the View.
+
+            // Create the two thumb objects.
+            final float yPos = h / 2f;
+            final ThumbImages images = obtainThumbImages(mThumbImageNormal, mThumbImagePressed);
+            mLeftThumb = new TextThumb(ctx,
+                                   yPos,
+                                   mThumbColorNormal,
+                                   mThumbColorPressed,
+                                   mThumbRadiusDP,
+                                   images);
+            applyCircleText(mLeftThumb);
+            mRightThumb = new TextThumb(ctx,
+                    yPos,
+                    mThumbColorNormal,
+                    mThumbColorPressed,
+                    mThumbRadiusDP,
+                    images);
+            // Create the underlying bar.
+            final float marginLeft = mLeftThumb.getHalfWidth();
+            final float barLength = w - 2 * marginLeft;
+            mBar = new TextBar(ctx, marginLeft, yPos, barLength, mTickCount, mTickHeightDP, mBarWeight, mBarColor);
+
+            // Initialize thumbs to the desired indices
+            mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
+
+            // Set the thumb indices.
+            final int newLeftIndex = mBar.getNearestTickIndex(mLeftThumb);
+
+            // Call the listener.
+            if (newLeftIndex != mLeftIndex ) {
+
+                mLeftIndex = newLeftIndex;
+
+                dispatchIndexChange(mLeftIndex, -1);
+            }
 
-            mLeftIndex = newLeftIndex;
+            // Create the line connecting the two thumbs.
+            mConnectingLine = new ConnectingLine(ctx, yPos, mConnectingLineWeight, mConnectingLineColor);
+            layoutScale(marginLeft, barLength);
+            layoutLayers(marginLeft, barLength);
 
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, -1);
-            }
+            applyQuality();
+            layoutTickLabels();
+        } finally {
+            SeekBarTrace.endSection();
         }
-
-        // Create the line connecting the two thumbs.
-        mConnectingLine = new ConnectingLine(ctx, yPos, mConnectingLineWeight, mConnectingLineColor);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_DRAW);
+        // In low latency mode the dragged thumb is drawn at its predicted
+        // position for this frame only; the index uses the actual one, which
+        // is restored even if drawing throws.
+        boolean dragged = false;
+        float actualX = 0;
+        try {
+            super.onDraw(canvas);
 
-        super.onDraw(canvas);
+            dragged = mLeftThumb.isPressed();
+            if (dragged) {
+                actualX = mLeftThumb.getX();
+                mLeftThumb.setX(getPredictedThumbX(actualX, mBar.getLeftX(), mBar.getRightX()));
+            }
 
-        mBar.draw(canvas);
+            drawLayers(canvas, 0, mLeftIndex, mBar.getLeftX(), mLeftThumb.getX());
 
-        mConnectingLine.draw(canvas, mLeftThumb,mRightThumb);
+            int count = mBar.draw(canvas);
 
-        mLeftThumb.draw(canvas);
+            count += mConnectingLine.draw(canvas, mLeftThumb,mRightThumb);
 
+            updateThumbLabel();
+            count += mLeftThumb.draw(canvas);
+            countDrawCalls(count);
+        } finally {
+            if (dragged) {
+                mLeftThumb.setX(actualX);
+            }
+            SeekBarTrace.endSection();
+        }
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_TOUCH);
+        try {
+            // If this View is not enabled, don't allow for touch interactions.
+            if (!isEnabled()) {
+                return false;
+            }
 
-        // If this View is not enabled, don't allow for touch interactions.
-        if (!isEnabled()) {
-            return false;
-        }
-
-        switch (event.getAction()) {
+            switch (event.getAction()) {
 
-            case MotionEvent.ACTION_DOWN:
-                onActionDown(event.getX(), event.getY());
-                return true;
+                case MotionEvent.ACTION_DOWN:
+                    onActionDown(event.getX(), event.getY());
+                    if (mLeftThumb.isPressed()) {
+                        requestLowLatencyInput(event);
+                    }
+                    return true;
 
-            case MotionEvent.ACTION_UP:
-            case MotionEvent.ACTION_CANCEL:
-                this.getParent().requestDisallowInterceptTouchEvent(false);
-                onActionUp(event.getX(), event.getY());
-                return true;
+                case MotionEvent.ACTION_UP:
+                case MotionEvent.ACTION_CANCEL:
+                    this.getParent().requestDisallowInterceptTouchEvent(false);
+                    onActionUp(event.getX(), event.getY());
+                    return true;
 
-            case MotionEvent.ACTION_MOVE:
-                onActionMove(event.getX());
-                this.getParent().requestDisallowInterceptTouchEvent(true);
-                return true;
+                case MotionEvent.ACTION_MOVE:
+                    onActionMove(event.getX());
+                    this.getParent().requestDisallowInterceptTouchEvent(true);
+                    return true;
 
-            default:
-                return false;
+                default:
+                    return false;
+            }
+        } finally {
+            SeekBarTrace.endSection();
         }
     }
 
@@ -221,15 +272,12 @@ public class TextSeekBar extends BaseSeekBar {
             // allows it on the first setting.
             if (mFirstSetTickCount) {
                 mLeftIndex = 0;
-                if (mListener != null) {
-                    mListener.onIndexChangeListener(this, mLeftIndex, -1);
-                }
+                dispatchIndexChange(mLeftIndex, -1);
             }
             if (indexOutOfRange(mLeftIndex)) {
                 mLeftIndex = 0;
 
-                if (mListener != null)
-                    mListener.onIndexChangeListener(this, mLeftIndex, -1);
+                dispatchIndexChange(mLeftIndex, -1);
             }
 
             createBar();
@@ -331,6 +379,29 @@ public class TextSeekBar extends BaseSeekBar {
         createThumbs();
     }
 
+    /**
+     * Sets the size the thumb images are decoded and drawn at, so large
+     * resources are not kept in memory at full resolution.
+     *
+     * @param thumbImageSize Float specifying the longest side of the thumb
+     *            images in px; -1 to use the density-scaled resource size.
+     */
+    public void setThumbImageSize(float thumbImageSize) {
+        mThumbImageSizePx = thumbImageSize;
+        createThumbs();
+    }
+
+    /**
+     * If this is set, opaque thumb images are decoded as RGB_565, halving the
+     * memory they hold. Images with transparency are not affected.
+     *
+     * @param thumbImageOpaque boolean whether to prefer RGB_565 for the images.
+     */
+    public void setThumbImageOpaque(boolean thumbImageOpaque) {
+        mThumbImageOpaque = thumbImageOpaque;
+        createThumbs();
+    }
+
     /**
      * If this is set, the thumb images will be replaced with a circle. The
      * normal image will be of the specified color.
@@ -369,9 +440,7 @@ public class TextSeekBar extends BaseSeekBar {
                 mTickCount = tickCount;
                 mLeftIndex = 0;
 
-                if (mListener != null) {
-                    mListener.onIndexChangeListener(this, mLeftIndex, -1);
-                }
+                dispatchIndexChange(mLeftIndex, -1);
 
             }
             mThumbColorNormal = ta.getColor(R.styleable.SeekBar_thumbColorNormal, DEFAULT_THUMB_COLOR_NORMAL);
@@ -416,17 +485,42 @@ public class TextSeekBar extends BaseSeekBar {
                 mFirstSetTickCount = false;
 
             mLeftIndex = leftThumbIndex;
-            createThumbs();
-
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, -1);
+            if (isThumbAnimationEnabled() && mBar != null) {
+                // Glide the existing thumb over instead of replacing it.
+                moveIndexThumb();
+            } else {
+                createThumbs();
             }
+
+            dispatchIndexChange(mLeftIndex, -1);
         }
 
         invalidate();
         requestLayout();
     }
 
+    @Override
+    protected boolean canApplyIndices() {
+        return true;
+    }
+
+    @Override
+    protected void applyIndices(int leftThumbIndex, int rightThumbIndex, boolean notify) {
+        final int lastIndex = mTickCount - 1;
+        final int oldLeftIndex = mLeftIndex;
+        mLeftIndex = Math.max(0, Math.min(leftThumbIndex, lastIndex));
+        mFirstSetTickCount = false;
+
+        // Before the first layout the thumb is placed in onSizeChanged.
+        if (mBar != null) {
+            moveIndexThumb();
+        }
+
+        if (notify && mLeftIndex != oldLeftIndex) {
+            dispatchIndexChange(mLeftIndex, -1);
+        }
+    }
+
     /**
      * Gets the index of the left-most thumb.
      * 
@@ -441,15 +535,61 @@ public class TextSeekBar extends BaseSeekBar {
      * 
      */
     private void createBar() {
-        mBar = new TextBar(getContext(),
-                       getMarginLeft(),
-                       getYPos(),
-                       getBarLength(),
-                       mTickCount,
-                       mTickHeightDP,
-                       mBarWeight,
-                       mBarColor);
-        invalidate();
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_CREATE_BAR);
+        try {
+            if (mMetrics != null) {
+                mMetrics.increment(SeekBarMetrics.COUNTER_BAR_REBUILDS);
+            }
+            mBar = new TextBar(getContext(),
+                           getMarginLeft(),
+                           getYPos(),
+                           getBarLength(),
+                           mTickCount,
+                           mTickHeightDP,
+                           mBarWeight,
+                           mBarColor);
+            applyQuality();
+            layoutTickLabels();
+            layoutLayers(getMarginLeft(), getBarLength());
+            invalidate();
+        } finally {
+            SeekBarTrace.endSection();
+        }
+    }
+
+    @Override
+    protected void onQualityChanged(int quality) {
+        applyQuality();
+    }
+
+    /**
+     * Applies the current rendering quality to the bar and connecting line.
+     */
+    private void applyQuality() {
+        final boolean antiAlias = mQuality < QUALITY_NO_ANTI_ALIAS;
+        if (mBar != null) {
+            mBar.setAntiAlias(antiAlias);
+            mBar.setDecimateTicks(mQuality >= QUALITY_DECIMATED_TICKS);
+        }
+        if (mConnectingLine != null) {
+            mConnectingLine.setAntiAlias(antiAlias);
+        }
+    }
+
+    @Override
+    protected void onTickLabelsChanged() {
+        layoutTickLabels();
+        super.onTickLabelsChanged();
+    }
+
+    /**
+     * Lays the tick labels out for the current bar.
+     */
+    private void layoutTickLabels() {
+        if (mBar != null && mLeftThumb != null) {
+            mBar.setTickLabels(createTickLabelLayout(mBar.getLeftX(), mBar.getTickDistance(),
+                    mLeftThumb.getHalfHeight()));
+        }
     }
 
     /**
@@ -461,6 +601,7 @@ public class TextSeekBar extends BaseSeekBar {
                                              getYPos(),
                                              mConnectingLineWeight,
                                              mConnectingLineColor);
+        applyQuality();
         invalidate();
     }
 
@@ -468,25 +609,35 @@ public class TextSeekBar extends BaseSeekBar {
      * Creates two new Thumbs.
      */
     private void createThumbs() {
+        SeekBarTrace.beginSection(SeekBarTrace.SECTION_CREATE_THUMBS);
+        try {
+            if (mMetrics != null) {
+                mMetrics.increment(SeekBarMetrics.COUNTER_THUMB_REBUILDS);
+            }
+            cancelThumbAnimations();
 
-        Context ctx = getContext();
-        float yPos = getYPos();
+            Context ctx = getContext();
+            float yPos = getYPos();
+            ThumbImages images = obtainThumbImages(mThumbImageNormal, mThumbImagePressed);
 
-        mLeftThumb = new TextThumb(ctx,
-                               yPos,
-                               mThumbColorNormal,
-                               mThumbColorPressed,
-                               mThumbRadiusDP,
-                               mThumbImageNormal,
-                               mThumbImagePressed);
+            mLeftThumb = new TextThumb(ctx,
+                                   yPos,
+                                   mThumbColorNormal,
+                                   mThumbColorPressed,
+                                   mThumbRadiusDP,
+                                   images);
+            applyCircleText(mLeftThumb);
 
-        float marginLeft = getMarginLeft();
-        float barLength = getBarLength();
+            float marginLeft = getMarginLeft();
+            float barLength = getBarLength();
 
-        // Initialize thumbs to the desired indices
-        mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
+            // Initialize thumbs to the desired indices
+            mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
 
-        invalidate();
+            invalidate();
+        } finally {
+            SeekBarTrace.endSection();
+        }
     }
 
     /**
@@ -507,6 +658,18 @@ public class TextSeekBar extends BaseSeekBar {
     private float getBarLength() {
         return (getWidth() - 2 * getMarginLeft());
     }
+
+    /**
+     * Moves the thumb to the tick of an index set programmatically. A pressed
+     * thumb stays under the finger and snaps to its own tick on release.
+     */
+    private void moveIndexThumb() {
+        if (mLeftThumb.isPressed()) {
+            return;
+        }
+        moveThumbTo(mLeftThumb, getMarginLeft() + (mLeftIndex / (float) (mTickCount - 1)) * getBarLength());
+    }
+
     /**
      * Returns if either index is outside the range of the tickCount.
      *
@@ -557,9 +720,7 @@ public class TextSeekBar extends BaseSeekBar {
 
 	            mLeftIndex = newLeftIndex;
 
-	            if (mListener != null) {
-	                mListener.onIndexChangeListener(this, mLeftIndex, -1);
-	            }
+	            dispatchIndexChange(mLeftIndex, -1);
 	        }
 		}
 	}
@@ -584,9 +745,24 @@ public class TextSeekBar extends BaseSeekBar {
 
             mLeftIndex = newLeftIndex;
 
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, -1);
-            }
+            dispatchIndexChange(mLeftIndex, -1);
+        }
+
+        if (isPredictingIndices() && mLeftThumb.isPressed()) {
+            predictIndex();
+        }
+    }
+
+    /**
+     * Tells the prediction listener where the pressed thumb is heading, if
+     * that is not where it is.
+     */
+    private void predictIndex() {
+        final float settleX = Math.max(mBar.getLeftX(),
+                Math.min(getSettleX(mLeftThumb.getX()), mBar.getRightX()));
+        final int index = mBar.getNearestTickIndex(settleX);
+        if (index != mLeftIndex) {
+            dispatchIndexPrediction(index, -1);
         }
     }
 
@@ -599,6 +775,7 @@ public class TextSeekBar extends BaseSeekBar {
     private void pressThumb(TextThumb thumb) {
         if (mFirstSetTickCount == true)
             mFirstSetTickCount = false;
+        finishThumbAnimations();
         thumb.press();
         invalidate();
     }
@@ -612,7 +789,7 @@ public class TextSeekBar extends BaseSeekBar {
     private void releaseThumb(TextThumb thumb) {
 
         final float nearestTickX = mBar.getNearestTickCoordinate(thumb);
-        thumb.setX(nearestTickX);
+        moveThumbTo(thumb, nearestTickX);
         thumb.release();
         invalidate();
     }
@@ -645,5 +822,61 @@ public class TextSeekBar extends BaseSeekBar {
         if(mLeftThumb!=null){
             mLeftThumb.setCircleTextSize(size);
         }
+        this.mCircleTextSize = size;
+        // The label of the current index is measured again at the new size.
+        mLabelIndex = -1;
+        invalidate();
+    }
+
+    /**
+     * Sets the adapter supplying the thumb text for each index. Labels are
+     * requested and measured only when the thumb lands on an index that is
+     * not cached, so the listener no longer needs to call setCircleText.
+     *
+     * @param adapter the label adapter; null to show the circle text again
+     */
+    public void setLabelAdapter(LabelAdapter adapter) {
+        mLabels.setAdapter(adapter);
+        mLabelIndex = -1;
+        if (adapter == null && mLeftThumb != null) {
+            mLeftThumb.setLabel(null);
+        }
+        invalidate();
+    }
+
+    /**
+     * Drops the cached labels so they are requested from the adapter again,
+     * e.g. after the data behind it changed.
+     */
+    public void notifyLabelsChanged() {
+        mLabels.clear();
+        mLabelIndex = -1;
+        invalidate();
+    }
+
+    @Override
+    protected void releaseResources() {
+        super.releaseResources();
+        mLabels.clear();
+        mLabelIndex = -1;
+    }
+
+    private void applyCircleText(TextThumb thumb) {
+        thumb.setCircleText(mCircleText);
+        if (mCircleTextSize != -1) {
+            thumb.setCircleTextSize(mCircleTextSize);
+        }
+        // The new thumb has no label yet.
+        mLabelIndex = -1;
+    }
+
+    /**
+     * Hands the thumb the label of its current index if the index changed.
+     */
+    private void updateThumbLabel() {
+        if (mLabels.getAdapter() != null && mLabelIndex != mLeftIndex) {
+            mLeftThumb.setLabel(mLabels.get(mLeftIndex, mLeftThumb.getTextPaint()));
+            mLabelIndex = mLeftIndex;
+        }
     }
 }
@@ -16,7 +16,6 @@ package com.seekbar.sliding.text;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -25,6 +24,8 @@ import android.text.TextUtils;
 import android.util.TypedValue;
 
 import com.seekbar.BaseThumb;
+import com.seekbar.LabelCache;
+import com.seekbar.ThumbImages;
 
 /**
  * Represents a thumb in the RangeBar slider. This is the handle for the slider
@@ -52,9 +53,9 @@ class TextThumb extends BaseThumb {
     // Radius (in pixels) of the touch area of the thumb.
     private final float mTargetRadiusPx;
 
-    // The normal and pressed images to display for the thumbs.
-    private final Bitmap mImageNormal;
-    private final Bitmap mImagePressed;
+    // The normal and pressed images to display for the thumbs, shared with the
+    // other thumb of the bar.
+    private final ThumbImages mImages;
 
     // Variables to store half the width/height for easier calculation.
     private final float mHalfWidthNormal;
@@ -80,6 +81,11 @@ class TextThumb extends BaseThumb {
     private String circleText;
     private float circleTextSize=12;
 
+    // circleText measured once, and the label from the adapter which takes
+    // precedence over it
+    private LabelCache.Label mCircleLabel;
+    private LabelCache.Label mLabel;
+
 
     // Radius of the new thumb if selected
     private float mThumbRadiusPx;
@@ -98,19 +104,27 @@ class TextThumb extends BaseThumb {
               int thumbColorNormal,
               int thumbColorPressed,
               float thumbRadiusDP,
-              int thumbImageNormal,
-              int thumbImagePressed) {
+              ThumbImages images) {
         this.context = ctx;
         final Resources res = ctx.getResources();
 
-        mImageNormal = BitmapFactory.decodeResource(res, thumbImageNormal);
-        mImagePressed = BitmapFactory.decodeResource(res, thumbImagePressed);
+        mImages = images;
+
+        mHalfWidthNormal = images.getNormalWidth() / 2f;
+        mHalfHeightNormal = images.getNormalHeight() / 2f;
+
+        mHalfWidthPressed = images.getPressedWidth() / 2f;
+        mHalfHeightPressed = images.getPressedHeight() / 2f;
 
         // If any of the attributes are set, toggle bitmap off
         if (thumbRadiusDP == -1 && thumbColorNormal == -1 && thumbColorPressed == -1) {
 
             mUseBitmap = true;
 
+            // The circle stands in for the images while they are not decoded,
+            // so it takes their size.
+            mThumbRadiusPx = Math.min(mHalfWidthNormal, mHalfHeightNormal);
+
         } else {
 
             mUseBitmap = false;
@@ -125,26 +139,26 @@ class TextThumb extends BaseThumb {
                 mThumbRadiusPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
                                                            thumbRadiusDP,
                                                            res.getDisplayMetrics());
+        }
 
-            if (thumbColorNormal == -1)
-                mThumbColorNormal = DEFAULT_THUMB_COLOR_NORMAL;
-            else
-                mThumbColorNormal = thumbColorNormal;
+        if (thumbColorNormal == -1)
+            mThumbColorNormal = DEFAULT_THUMB_COLOR_NORMAL;
+        else
+            mThumbColorNormal = thumbColorNormal;
 
-            if (thumbColorPressed == -1)
-                mThumbColorPressed = DEFAULT_THUMB_COLOR_PRESSED;
-            else
-                mThumbColorPressed = thumbColorPressed;
+        if (thumbColorPressed == -1)
+            mThumbColorPressed = DEFAULT_THUMB_COLOR_PRESSED;
+        else
+            mThumbColorPressed = thumbColorPressed;
 
-            // Creates the paint and sets the Paint values
-            mPaintNormal = new Paint();
-            mPaintNormal.setColor(mThumbColorNormal);
-            mPaintNormal.setAntiAlias(true);
+        // Creates the paint and sets the Paint values
+        mPaintNormal = new Paint();
+        mPaintNormal.setColor(mThumbColorNormal);
+        mPaintNormal.setAntiAlias(true);
 
-            mPaintPressed = new Paint();
-            mPaintPressed.setColor(mThumbColorPressed);
-            mPaintPressed.setAntiAlias(true);
-        }
+        mPaintPressed = new Paint();
+        mPaintPressed.setColor(mThumbColorPressed);
+        mPaintPressed.setAntiAlias(true);
 
         mPaintText = new Paint();
         mPaintText.setColor(Color.WHITE);
@@ -152,12 +166,6 @@ class TextThumb extends BaseThumb {
         float textSize = sp2px(ctx,circleTextSize);
         mPaintText.setTextSize(textSize);
 
-        mHalfWidthNormal = mImageNormal.getWidth() / 2f;
-        mHalfHeightNormal = mImageNormal.getHeight() / 2f;
-
-        mHalfWidthPressed = mImagePressed.getWidth() / 2f;
-        mHalfHeightPressed = mImagePressed.getHeight() / 2f;
-
         // Sets the minimum touchable area, but allows it to expand based on
         // image size
         int targetRadius = (int) Math.max(MINIMUM_TARGET_RADIUS_DP, thumbRadiusDP);
@@ -180,7 +188,8 @@ class TextThumb extends BaseThumb {
         return mHalfHeightNormal;
     }
 
-    void setX(float x) {
+    @Override
+    public void setX(float x) {
         mX = x;
     }
 
@@ -223,13 +232,15 @@ class TextThumb extends BaseThumb {
      * 
      * @param canvas Canvas to draw on; should be the Canvas passed into {#link
      *            View#onDraw()}
+     * @return the number of canvas calls issued
      */
-    void draw(Canvas canvas) {
+    int draw(Canvas canvas) {
 
         // If a bitmap is to be printed. Determined by thumbRadius attribute.
-        if (mUseBitmap) {
+        // Until the images are decoded the circle is drawn in their place.
+        if (mUseBitmap && mImages.hasBitmaps()) {
 
-            final Bitmap bitmap = (mIsPressed) ? mImagePressed : mImageNormal;
+            final Bitmap bitmap = (mIsPressed) ? mImages.getImagePressed() : mImages.getImageNormal();
 
             if (mIsPressed) {
                 final float topPressed = mY - mHalfHeightPressed;
@@ -240,14 +251,6 @@ class TextThumb extends BaseThumb {
                 final float leftNormal = mX - mHalfWidthNormal;
                 canvas.drawBitmap(bitmap, leftNormal, topNormal, null);
             }
-            if(!TextUtils.isEmpty(circleText)){
-                final float leftNormal = mX;
-                float textSize = sp2px(context,circleTextSize);
-                mPaintText.setTextSize(textSize);
-                Rect mRect = new Rect();
-                mPaintText.getTextBounds(getCircleText(),0,getCircleText().length(),mRect);
-                canvas.drawText(getCircleText(),leftNormal-mRect.width()/2,mY+mRect.height()/2,mPaintText);
-            }
         } else {
 
             // Otherwise use a circle to display.
@@ -256,6 +259,13 @@ class TextThumb extends BaseThumb {
             else
                 canvas.drawCircle(mX, mY, mThumbRadiusPx, mPaintNormal);
         }
+        final LabelCache.Label label = getDrawnLabel();
+        if(mUseBitmap && label != null){
+            final float leftNormal = mX;
+            canvas.drawText(label.text,leftNormal-label.boundsWidth/2,mY+label.boundsHeight/2,mPaintText);
+            return 2;
+        }
+        return 1;
     }
 
     /**
@@ -276,10 +286,36 @@ class TextThumb extends BaseThumb {
 
     public void setCircleText(String circleText) {
         this.circleText = circleText;
+        mCircleLabel = null;
     }
 
     public void setCircleTextSize(float circleTextSize) {
         this.circleTextSize = circleTextSize;
+        mPaintText.setTextSize(sp2px(context,circleTextSize));
+        mCircleLabel = null;
+    }
+
+    /**
+     * Sets the measured label to draw instead of the circle text.
+     *
+     * @param label the label; null to draw the circle text
+     */
+    void setLabel(LabelCache.Label label) {
+        mLabel = label;
+    }
+
+    Paint getTextPaint() {
+        return mPaintText;
+    }
+
+    private LabelCache.Label getDrawnLabel() {
+        if (mLabel != null) {
+            return mLabel;
+        }
+        if (mCircleLabel == null && !TextUtils.isEmpty(circleText)) {
+            mCircleLabel = new LabelCache.Label(circleText, mPaintText, new Rect());
+        }
+        return mCircleLabel;
     }
 
 }
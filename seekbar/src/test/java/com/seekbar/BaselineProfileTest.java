@@ -0,0 +1,127 @@
+package com.seekbar;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that every class and method listed in the shipped baseline profile
+ * still exists, so renaming or changing a signature does not silently drop it
+ * from ahead-of-time compilation.
+ */
+public class BaselineProfileTest {
+
+    private static final String PROFILE = "src/main/baseline-prof.txt";
+
+    @Test
+    public void profileEntriesExist() throws Exception {
+        final List<String> missing = new ArrayList<>();
+        int entries = 0;
+
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(new File(PROFILE)), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                entries++;
+                if (!exists(line)) {
+                    missing.add(line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        assertTrue("Empty profile", entries > 0);
+        assertTrue("Missing from the code: " + missing, missing.isEmpty());
+    }
+
+    private static boolean exists(String line) {
+        // Skip the H, S and P flags in front of the class descriptor.
+        int start = 0;
+        while (start < line.length() && "HSP".indexOf(line.charAt(start)) >= 0) {
+            start++;
+        }
+        final int arrow = line.indexOf("->");
+        final String classDescriptor = line.substring(start, (arrow < 0) ? line.length() : arrow);
+
+        final Class<?> type;
+        try {
+            final String name = classDescriptor.substring(1, classDescriptor.length() - 1).replace('/', '.');
+            type = Class.forName(name, false, BaselineProfileTest.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        if (arrow < 0) {
+            return true;
+        }
+
+        final String member = line.substring(arrow + 2);
+        final int paren = member.indexOf('(');
+        final String name = member.substring(0, paren);
+        final String descriptor = member.substring(paren);
+
+        if (name.equals("<init>")) {
+            for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+                if (descriptor.equals(descriptor(constructor.getParameterTypes(), void.class))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getName().equals(name)
+                    && descriptor.equals(descriptor(method.getParameterTypes(), method.getReturnType()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String descriptor(Class<?>[] parameters, Class<?> returnType) {
+        final StringBuilder sb = new StringBuilder("(");
+        for (Class<?> parameter : parameters) {
+            sb.append(descriptor(parameter));
+        }
+        return sb.append(')').append(descriptor(returnType)).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return "[" + descriptor(type.getComponentType());
+        }
+        if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == byte.class) {
+            return "B";
+        } else if (type == char.class) {
+            return "C";
+        } else if (type == short.class) {
+            return "S";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == float.class) {
+            return "F";
+        } else if (type == double.class) {
+            return "D";
+        }
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+}
@@ -0,0 +1,37 @@
+package com.seekbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks how the strip is cut into slots and which frame each slot shows.
+ */
+public class FilmstripLayerTest {
+
+    @Test
+    public void cutsOffTheLastSlot() {
+        assertEquals(3, FilmstripLayer.getSlotCount(250, 100));
+        assertEquals(3, FilmstripLayer.getSlotCount(300, 100));
+        assertEquals(1, FilmstripLayer.getSlotCount(1, 100));
+
+        assertEquals(1f, FilmstripLayer.getSlotCrop(0, 250, 100), 0);
+        assertEquals(1f, FilmstripLayer.getSlotCrop(1, 250, 100), 0);
+        assertEquals(0.5f, FilmstripLayer.getSlotCrop(2, 250, 100), 1e-6f);
+        assertEquals(1f, FilmstripLayer.getSlotCrop(2, 300, 100), 0);
+    }
+
+    @Test
+    public void showsTheFrameAtTheSlotCenter() {
+        assertEquals(1200000, FilmstripLayer.getSlotTime(0, 250, 100, 1000000, 2000000));
+        assertEquals(1600000, FilmstripLayer.getSlotTime(1, 250, 100, 1000000, 2000000));
+        assertEquals(2000000, FilmstripLayer.getSlotTime(2, 250, 100, 1000000, 2000000));
+    }
+
+    @Test
+    public void clampsTheCutOffSlotToTheEnd() {
+        // The center of the last full slot lies past the end of the strip.
+        assertEquals(2000000, FilmstripLayer.getSlotTime(2, 220, 100, 1000000, 2000000));
+        assertEquals(1000, FilmstripLayer.getSlotTime(0, 50, 100, 0, 1000));
+    }
+}
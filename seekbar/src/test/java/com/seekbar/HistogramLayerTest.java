@@ -0,0 +1,20 @@
+package com.seekbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Checks that values are counted in the bucket of their nearest tick.
+ */
+public class HistogramLayerTest {
+
+    @Test
+    public void binsIntoNearestTick() {
+        final double[] data = {0, 0.4, 0.6, 1, 2.49, 2.5, 4, -1, 4.01};
+
+        final int[] counts = HistogramLayer.bin(data, 0, 4, 5);
+
+        assertArrayEquals(new int[] {2, 2, 1, 1, 1}, counts);
+    }
+}
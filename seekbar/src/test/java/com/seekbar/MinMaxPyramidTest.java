@@ -0,0 +1,55 @@
+package com.seekbar;
+
+import org.junit.Test;
+
+import java.nio.ShortBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the extremes read from the levels of the pyramid.
+ */
+public class MinMaxPyramidTest {
+
+    @Test
+    public void wholeRangeHasGlobalExtremes() {
+        final short[] samples = new short[10000];
+        samples[1234] = 32000;
+        samples[9999] = -31000;
+        final MinMaxPyramid pyramid = MinMaxPyramid.build(ShortBuffer.wrap(samples));
+        final short[] out = new short[2];
+
+        assertEquals(10000, pyramid.getSampleCount());
+        assertTrue(pyramid.range(0, 10000, out));
+        assertEquals(-31000, out[0]);
+        assertEquals(32000, out[1]);
+    }
+
+    @Test
+    public void spansReadTheBlocksAroundThem() {
+        final short[] samples = new short[4096];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (i / MinMaxPyramid.BASE_BLOCK);
+        }
+        final MinMaxPyramid pyramid = MinMaxPyramid.build(ShortBuffer.wrap(samples));
+        final short[] out = new short[2];
+
+        // A span of two blocks is read from the second level.
+        assertTrue(pyramid.range(128, 256, out));
+        assertEquals(2, out[0]);
+        assertEquals(3, out[1]);
+        // Shorter spans are rounded out to whole blocks of the first.
+        assertTrue(pyramid.range(130, 140, out));
+        assertEquals(2, out[0]);
+        assertEquals(2, out[1]);
+    }
+
+    @Test
+    public void emptySpansHaveNoExtremes() {
+        final MinMaxPyramid pyramid = MinMaxPyramid.build(ShortBuffer.wrap(new short[100]));
+
+        assertTrue(!pyramid.range(100, 200, new short[2]));
+        assertTrue(!pyramid.range(50, 50, new short[2]));
+    }
+}
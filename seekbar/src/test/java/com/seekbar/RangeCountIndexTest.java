@@ -0,0 +1,41 @@
+package com.seekbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the counts of tick ranges read from the prefix sums.
+ */
+public class RangeCountIndexTest {
+
+    @Test
+    public void countsInclusiveRanges() {
+        final RangeCountIndex index = new RangeCountIndex();
+        index.build(new int[] {2, 0, 5, 1, 3});
+
+        assertEquals(11, index.getTotal());
+        assertEquals(5, index.getTickCount());
+        assertEquals(2, index.count(0, 0));
+        assertEquals(6, index.count(1, 3));
+        assertEquals(11, index.count(0, 4));
+    }
+
+    @Test
+    public void limitsRangesToTheTicks() {
+        final RangeCountIndex index = new RangeCountIndex();
+        index.build(new int[] {2, 0, 5, 1, 3});
+
+        assertEquals(11, index.count(-3, 10));
+        assertEquals(0, index.count(3, 2));
+    }
+
+    @Test
+    public void emptyUntilBuilt() {
+        final RangeCountIndex index = new RangeCountIndex();
+
+        assertEquals(0, index.getTickCount());
+        assertEquals(0, index.count(0, 10));
+        assertEquals(0, index.getTotal());
+    }
+}
@@ -0,0 +1,60 @@
+package com.seekbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the sampled tables match the scales they were built from.
+ */
+public class ScaleTableTest {
+
+    @Test
+    public void logScaleRoundTrips() {
+        final ScaleTable table = new ScaleTable();
+        table.build(Scale.log(1, 100000), 20, 1000);
+
+        assertEquals(1, table.valueAtX(20), 1e-9);
+        assertEquals(100000, table.valueAtX(1020), 1e-6);
+        // Every fifth of the bar is one decade.
+        assertEquals(1000, table.valueAtX(620), 1000 * 1e-4);
+        assertEquals(620, table.xOf(1000), 0.01f);
+        assertEquals(350, table.xOf(table.valueAtX(350)), 0.01f);
+    }
+
+    @Test
+    public void valuesOutsideTheScaleAreClamped() {
+        final ScaleTable table = new ScaleTable();
+        table.build(Scale.linear(0, 10), 0, 100);
+
+        assertEquals(0, table.valueAtX(-50), 0);
+        assertEquals(10, table.valueAtX(500), 0);
+        assertEquals(0, table.fractionOf(-1), 0);
+        assertEquals(1, table.fractionOf(11), 0);
+    }
+
+    @Test
+    public void piecewiseLinearFollowsItsPoints() {
+        final Scale scale = Scale.piecewiseLinear(new double[] {0, 0.5, 1}, new double[] {0, 100, 10000});
+        final ScaleTable table = new ScaleTable();
+        table.build(scale, 0, 200);
+
+        assertEquals(50, table.valueAtFraction(0.25), 1e-9);
+        assertEquals(5050, table.valueAtFraction(0.75), 1e-9);
+        assertEquals(0.75, table.fractionOf(5050), 1e-9);
+    }
+
+    @Test
+    public void userScaleIsSampled() {
+        final ScaleTable table = new ScaleTable();
+        table.build(new Scale() {
+            @Override
+            public double valueAt(double fraction) {
+                return fraction * fraction * fraction;
+            }
+        }, 0, 1000);
+
+        assertEquals(0.125, table.valueAtFraction(0.5), 1e-6);
+        assertEquals(0.5, table.fractionOf(0.125), 1e-3);
+    }
+}
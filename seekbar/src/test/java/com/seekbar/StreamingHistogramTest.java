@@ -0,0 +1,85 @@
+package com.seekbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the counts per tick follow batches of changes and regrouping,
+ * and that only one layer can listen to a histogram.
+ */
+public class StreamingHistogramTest {
+
+    @Test
+    public void batchesUpdateTickCounts() {
+        final StreamingHistogram histogram = new StreamingHistogram(0, 4, 400);
+        histogram.setTickCount(5);
+        histogram.addAll(new double[] {0, 0.4, 1.2, 2, 3.9, 4, 7}, 0, 7);
+
+        final int[] counts = new int[5];
+        histogram.copyTickCounts(counts);
+        assertArrayEquals(new int[] {2, 1, 1, 0, 2}, counts);
+        assertEquals(6, histogram.getTotal());
+
+        histogram.removeAll(new double[] {9, 0.4, 4, 2.5}, 1, 2);
+        histogram.copyTickCounts(counts);
+        assertArrayEquals(new int[] {1, 1, 1, 0, 1}, counts);
+        assertEquals(4, histogram.getTotal());
+    }
+
+    @Test
+    public void regroupsWhenTickCountChanges() {
+        final StreamingHistogram histogram = new StreamingHistogram(0, 4, 400);
+        histogram.setTickCount(5);
+        histogram.addAll(new double[] {0, 0.4, 1.2, 2, 3.9, 4}, 0, 6);
+        histogram.setTickCount(3);
+
+        final int[] counts = new int[3];
+        histogram.copyTickCounts(counts);
+        assertArrayEquals(new int[] {2, 2, 2}, counts);
+    }
+
+    @Test
+    public void removingUncountedValuesIsIgnored() {
+        final StreamingHistogram histogram = new StreamingHistogram(0, 1);
+        histogram.setTickCount(2);
+        histogram.add(0.1);
+        histogram.remove(0.1);
+        histogram.remove(0.1);
+
+        final int[] counts = new int[2];
+        histogram.copyTickCounts(counts);
+        assertArrayEquals(new int[] {0, 0}, counts);
+        assertEquals(0, histogram.getTotal());
+    }
+
+    @Test
+    public void rejectsASecondListener() {
+        final StreamingHistogram histogram = new StreamingHistogram(0, 1);
+        final Runnable first = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        histogram.setOnChangeListener(first);
+        histogram.setOnChangeListener(first);
+        try {
+            histogram.setOnChangeListener(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            fail("A second listener was accepted");
+        } catch (IllegalStateException expected) {
+        }
+
+        histogram.setOnChangeListener(null);
+        histogram.setOnChangeListener(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+}
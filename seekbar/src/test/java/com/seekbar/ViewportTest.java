@@ -0,0 +1,75 @@
+package com.seekbar;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the value and pixel mapping of a viewport over a year of minutes.
+ */
+public class ViewportTest {
+
+    private static final long MINUTE = 60 * 1000L;
+    private static final long YEAR = 365 * 24 * 60 * MINUTE;
+    private static final long START = 1483228800000L;
+
+    private Viewport mViewport;
+
+    @Before
+    public void setUp() {
+        mViewport = new Viewport(START, START + YEAR, MINUTE);
+        mViewport.setBounds(10, 1000);
+    }
+
+    @Test
+    public void mapsValuesAcrossTheWindow() {
+        assertEquals(10f, mViewport.valueToX(START), 0.01f);
+        assertEquals(1010f, mViewport.valueToX(START + YEAR), 0.01f);
+        assertEquals(START + YEAR / 2, mViewport.xToValue(510), MINUTE);
+    }
+
+    @Test
+    public void snapsToTheNearestTick() {
+        assertEquals(START + 3 * MINUTE, mViewport.snap(START + 3 * MINUTE + 29999));
+        assertEquals(START + 4 * MINUTE, mViewport.snap(START + 3 * MINUTE + 30000));
+        assertEquals(START, mViewport.snap(START - MINUTE));
+        assertEquals(START + YEAR, mViewport.snap(START + YEAR + MINUTE));
+    }
+
+    @Test
+    public void zoomKeepsTheFocusInPlace() {
+        final long focus = mViewport.xToValue(300);
+        mViewport.zoom(300, 1000);
+        assertEquals(focus, mViewport.xToValue(300), YEAR / 1000 / 1000 + 1);
+        assertEquals(YEAR / 1000, mViewport.getViewEnd() - mViewport.getViewStart(), 1);
+    }
+
+    @Test
+    public void zoomStopsAtTwoTicksAndTheWholeDomain() {
+        mViewport.zoom(500, 1e12f);
+        assertEquals(2 * MINUTE, mViewport.getViewEnd() - mViewport.getViewStart());
+        mViewport.zoom(500, 1e-12f);
+        assertEquals(START, mViewport.getViewStart());
+        assertEquals(START + YEAR, mViewport.getViewEnd());
+    }
+
+    @Test
+    public void panStaysInsideTheDomain() {
+        mViewport.setVisibleRange(START, START + 60 * MINUTE);
+        mViewport.pan(500);
+        assertEquals(START, mViewport.getViewStart());
+        mViewport.pan(-500);
+        assertEquals(START + 30 * MINUTE, mViewport.getViewStart());
+    }
+
+    @Test
+    public void drawnTicksDependOnTheWidthOnly() {
+        final long stride = mViewport.getTickStride(6);
+        final long first = mViewport.getFirstVisibleTick(stride);
+        final long ticks = (mViewport.getViewEnd() - first) / (MINUTE * stride) + 1;
+        assertTrue("too many ticks: " + ticks, ticks <= 1000 / 6 + 1);
+        assertEquals(0, Long.bitCount(stride) - 1);
+    }
+}